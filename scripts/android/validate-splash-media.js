@@ -0,0 +1,74 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+*/
+
+/* jshint node: true */
+
+// Checks after "cordova prepare android" that the splash video is where the app will look for it.
+
+var fs = require('fs');
+var path = require('path');
+
+function readPreferences(configXml) {
+    var preferences = {};
+    var pattern = /<preference\s+name="([^"]+)"\s+value="([^"]*)"/g;
+    var match;
+    while ((match = pattern.exec(configXml)) !== null) {
+        preferences[match[1]] = match[2];
+    }
+    return preferences;
+}
+
+function findAssetsWww(platformRoot) {
+    var candidates = [
+        path.join(platformRoot, 'app', 'src', 'main', 'assets', 'www'),
+        path.join(platformRoot, 'assets', 'www')
+    ];
+    for (var i = 0; i < candidates.length; i++) {
+        if (fs.existsSync(candidates[i])) {
+            return candidates[i];
+        }
+    }
+    return null;
+}
+
+module.exports = function (context) {
+    if (context.opts.platforms && context.opts.platforms.indexOf('android') === -1) {
+        return;
+    }
+    var projectRoot = context.opts.projectRoot;
+    var configPath = path.join(projectRoot, 'config.xml');
+    if (!fs.existsSync(configPath)) {
+        return;
+    }
+    var preferences = readPreferences(fs.readFileSync(configPath, 'utf8'));
+    var videoPath = preferences.SplashScreenVideoPath;
+    if (!videoPath || /^[a-z]+:\/\//i.test(videoPath)) {
+        // No video, or a remote one that is not packaged.
+        return;
+    }
+
+    var prefix = 'cordova-plugin-splashscreen: ';
+    var www = findAssetsWww(path.join(projectRoot, 'platforms', 'android'));
+    if (www && !fs.existsSync(path.join(www, videoPath))) {
+        console.warn(prefix + 'SplashScreenVideoPath "' + videoPath + '" was not found in ' + www +
+            ', the splash image will be shown instead.');
+    }
+};
@@ -0,0 +1,316 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+         http://www.apache.org/licenses/LICENSE-2.0
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+
+package org.apache.cordova.splashscreen;
+
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.content.res.AssetFileDescriptor;
+import android.media.AudioManager;
+import android.media.MediaPlayer;
+import android.net.Uri;
+import android.os.Build;
+import android.util.Log;
+import android.view.SurfaceHolder;
+import android.view.SurfaceView;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Plays the welcome video with {@link MediaPlayer} on the layout's SurfaceView.
+ *
+ * In legacy mode the surface buffer is fixed at 320x220 and scaled up to the view, as the plugin
+ * always did. Otherwise the buffer keeps the video's native size and scaling is left to the
+ * hardware composer.
+ *
+ * Asset videos are read in place from the APK. One that was stored compressed is streamed
+ * through {@link SplashAssetDataSource} instead, or extracted to the cache directory before
+ * Android 6.0.
+ */
+class MediaPlayerVideoEngine implements SplashVideoEngine, SurfaceHolder.Callback {
+    private static final String LOG_TAG = "SplashScreen";
+    private static final String EXTRACTED_ASSETS_DIR = "splash-assets";
+
+    private final boolean legacyFixedSize;
+
+    protected final MediaPlayer player = new MediaPlayer();
+    protected Listener listener;
+    private SurfaceView surfaceView;
+    private volatile boolean prepared;
+    private boolean hasDisplay;
+    private boolean startRequested;
+    private boolean released;
+
+    @SuppressWarnings("deprecation")
+    MediaPlayerVideoEngine(boolean legacyFixedSize) {
+        this.legacyFixedSize = legacyFixedSize;
+        player.setAudioStreamType(AudioManager.STREAM_MUSIC);
+        player.setOnPreparedListener(new MediaPlayer.OnPreparedListener() {
+            @Override
+            public void onPrepared(MediaPlayer mediaPlayer) {
+                prepared = true;
+                if (listener != null) {
+                    listener.onPrepared(MediaPlayerVideoEngine.this);
+                }
+            }
+        });
+        player.setOnCompletionListener(new MediaPlayer.OnCompletionListener() {
+            @Override
+            public void onCompletion(MediaPlayer mediaPlayer) {
+                if (listener != null) {
+                    listener.onCompletion(MediaPlayerVideoEngine.this);
+                }
+            }
+        });
+        player.setOnInfoListener(new MediaPlayer.OnInfoListener() {
+            @Override
+            public boolean onInfo(MediaPlayer mediaPlayer, int what, int extra) {
+                if (what == MediaPlayer.MEDIA_INFO_VIDEO_RENDERING_START && listener != null) {
+                    listener.onFirstFrame(MediaPlayerVideoEngine.this);
+                }
+                return false;
+            }
+        });
+        player.setOnErrorListener(new MediaPlayer.OnErrorListener() {
+            @Override
+            public boolean onError(MediaPlayer mediaPlayer, int what, int extra) {
+                if (listener != null) {
+                    listener.onError(MediaPlayerVideoEngine.this, what, extra);
+                }
+                return true;
+            }
+        });
+    }
+
+    @Override
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void setDataSource(Context context, String url, String movieUrl) throws IOException {
+        if (url.startsWith("file:///android_asset")) {
+            String assetPath = "www/" + movieUrl;
+            AssetFileDescriptor fileDescriptor;
+            try {
+                fileDescriptor = context.getAssets().openFd(assetPath);
+            } catch (FileNotFoundException e) {
+                // Also what compressed assets fail with; missing ones fail again below.
+                setCompressedAssetSource(context, assetPath);
+                return;
+            }
+            try {
+                player.setDataSource(fileDescriptor.getFileDescriptor(),
+                        fileDescriptor.getStartOffset(),
+                        fileDescriptor.getLength());
+            } finally {
+                fileDescriptor.close();
+            }
+        } else {
+            player.setDataSource(context, Uri.parse(url));
+        }
+    }
+
+    private void setCompressedAssetSource(Context context, String assetPath) throws IOException {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            SplashAssetDataSource source = new SplashAssetDataSource(context.getAssets(), assetPath);
+            Log.w(LOG_TAG, assetPath + " is stored compressed, streaming it");
+            player.setDataSource(source);
+            return;
+        }
+        File extracted = extractAsset(context, assetPath);
+        // The media server cannot open files in app-private storage by path.
+        FileInputStream in = new FileInputStream(extracted);
+        try {
+            player.setDataSource(in.getFD());
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Copies a compressed asset to the cache directory, unless a copy made since the app was last
+     * installed or updated is already there.
+     */
+    private static File extractAsset(Context context, String assetPath) throws IOException {
+        File dir = new File(context.getCacheDir(), EXTRACTED_ASSETS_DIR);
+        File extracted = new File(dir, assetPath.replace('/', '_'));
+        long installed;
+        try {
+            installed = context.getPackageManager().getPackageInfo(context.getPackageName(), 0).lastUpdateTime;
+        } catch (PackageManager.NameNotFoundException e) {
+            installed = Long.MAX_VALUE;
+        }
+        InputStream in = context.getAssets().open(assetPath);
+        try {
+            if (extracted.isFile() && extracted.length() == in.available() && extracted.lastModified() >= installed) {
+                return extracted;
+            }
+            Log.w(LOG_TAG, assetPath + " is stored compressed, extracting it");
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("Could not create " + dir);
+            }
+            File partial = new File(dir, extracted.getName() + ".part");
+            OutputStream out = new FileOutputStream(partial);
+            try {
+                byte[] buffer = new byte[64 * 1024];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            } finally {
+                out.close();
+            }
+            if (!partial.renameTo(extracted)) {
+                partial.delete();
+                throw new IOException("Could not move " + partial + " to " + extracted);
+            }
+            return extracted;
+        } finally {
+            in.close();
+        }
+    }
+
+    @Override
+    public void prepare() throws IOException {
+        player.prepare();
+        prepared = true;
+    }
+
+    @Override
+    public void prepareAsync() {
+        player.prepareAsync();
+    }
+
+    @Override
+    public boolean isPrepared() {
+        return prepared;
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public void attach(SurfaceView placeholder) {
+        surfaceView = placeholder;
+        SurfaceHolder holder = placeholder.getHolder();
+        holder.addCallback(this);
+        if (legacyFixedSize) {
+            holder.setFixedSize(320, 220);// 显示的分辨率,不设置为视频默认
+            holder.setType(SurfaceHolder.SURFACE_TYPE_PUSH_BUFFERS);// Surface类型
+        }
+        // surfaceCreated is not called again for a surface that already exists, e.g. when a
+        // pre-warmed engine is attached after the splash dialog is up.
+        if (holder.getSurface() != null && holder.getSurface().isValid()) {
+            player.setDisplay(holder);
+            onDisplayAvailable();
+        }
+    }
+
+    @Override
+    public void surfaceCreated(SurfaceHolder holder) {
+        // 必须在surface创建后才能显示图像
+        player.setDisplay(holder);
+        onDisplayAvailable();
+    }
+
+    @Override
+    public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {
+    }
+
+    @Override
+    public void surfaceDestroyed(SurfaceHolder holder) {
+        onDisplayLost();
+        if (!released) {
+            player.setDisplay(null);
+        }
+    }
+
+    /**
+     * Subclasses rendering somewhere else call this once the player has a surface to draw on.
+     */
+    protected void onDisplayAvailable() {
+        hasDisplay = true;
+        if (listener != null) {
+            listener.onDisplayAvailable(this);
+        }
+        if (startRequested && !released) {
+            startRequested = false;
+            player.start();
+        }
+    }
+
+    protected void onDisplayLost() {
+        hasDisplay = false;
+    }
+
+    @Override
+    public void start() {
+        if (hasDisplay) {
+            player.start();
+        } else {
+            startRequested = true;
+        }
+    }
+
+    @Override
+    public void pause() {
+        startRequested = false;
+        if (player.isPlaying()) {
+            player.pause();
+        }
+    }
+
+    @Override
+    public boolean isPlaying() {
+        return !released && player.isPlaying();
+    }
+
+    @Override
+    public int getCurrentPosition() {
+        return player.getCurrentPosition();
+    }
+
+    @Override
+    public void seekTo(int position) {
+        player.seekTo(position);
+    }
+
+    @Override
+    public void release() {
+        if (released) {
+            return;
+        }
+        released = true;
+        startRequested = false;
+        if (surfaceView != null) {
+            surfaceView.getHolder().removeCallback(this);
+        }
+        try {
+            if (player.isPlaying()) {
+                player.stop();
+            }
+        } catch (IllegalStateException e) {
+            // Player was never prepared, nothing to stop.
+        }
+        player.release();
+    }
+}
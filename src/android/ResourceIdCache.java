@@ -0,0 +1,75 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+         http://www.apache.org/licenses/LICENSE-2.0
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+
+package org.apache.cordova.splashscreen;
+
+import android.content.Context;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Caches {@link android.content.res.Resources#getIdentifier} results, which are looked up by
+ * name and therefore slow. The plugin's resources are not known at compile time because they are
+ * merged into the host app's R class, so they have to be found by name at least once; after that
+ * every show/hide cycle is served from here. The cache is cleared if it is used with a different
+ * package.
+ */
+class ResourceIdCache {
+    private static final ResourceIdCache INSTANCE = new ResourceIdCache();
+
+    private final Map<String, Integer> ids = new HashMap<String, Integer>();
+    private String packageName;
+
+    static ResourceIdCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the id of the named resource in the app's package, or 0 if there is none.
+     */
+    int get(Context context, String name, String type) {
+        return get(context, name, type, context.getPackageName());
+    }
+
+    /**
+     * Returns the id of the named resource in the given package, or 0 if there is none.
+     */
+    synchronized int get(Context context, String name, String type, String resourcePackage) {
+        String appPackage = context.getPackageName();
+        if (!appPackage.equals(packageName)) {
+            ids.clear();
+            packageName = appPackage;
+        }
+        String key = resourcePackage + ":" + type + "/" + name;
+        Integer id = ids.get(key);
+        if (id == null) {
+            id = context.getResources().getIdentifier(name, type, resourcePackage);
+            ids.put(key, id);
+        }
+        return id;
+    }
+
+    /**
+     * Looks up the given resources of one type so later calls to {@link #get} do not have to.
+     */
+    void preload(Context context, String type, String... names) {
+        for (String name : names) {
+            get(context, name, type);
+        }
+    }
+}
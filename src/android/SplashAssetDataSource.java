@@ -0,0 +1,97 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+         http://www.apache.org/licenses/LICENSE-2.0
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+
+package org.apache.cordova.splashscreen;
+
+import android.content.res.AssetManager;
+import android.media.MediaDataSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Streams an asset that is stored compressed in the APK to MediaPlayer, inflating it as the
+ * player reads. {@link AssetManager#openFd} only works for uncompressed assets.
+ *
+ * Reads usually move forward; a read behind the current position reopens the asset and inflates
+ * it again up to that point. Requires Android 6.0, the class must not be loaded before.
+ */
+class SplashAssetDataSource extends MediaDataSource {
+    private final AssetManager assets;
+    private final String path;
+    private final long size;
+    private InputStream in;
+    private long position;
+
+    /**
+     * @throws java.io.FileNotFoundException if there is no such asset.
+     */
+    SplashAssetDataSource(AssetManager assets, String path) throws IOException {
+        this.assets = assets;
+        this.path = path;
+        in = assets.open(path);
+        // Asset streams report the uncompressed length of the rest of the asset.
+        size = in.available();
+    }
+
+    @Override
+    public synchronized int readAt(long offset, byte[] buffer, int bufferOffset, int length) throws IOException {
+        if (offset >= size) {
+            return -1;
+        }
+        if (in == null || offset < position) {
+            if (in != null) {
+                in.close();
+            }
+            in = assets.open(path);
+            position = 0;
+        }
+        while (position < offset) {
+            long skipped = in.skip(offset - position);
+            if (skipped <= 0) {
+                if (in.read() == -1) {
+                    return -1;
+                }
+                skipped = 1;
+            }
+            position += skipped;
+        }
+        int total = 0;
+        while (total < length) {
+            int read = in.read(buffer, bufferOffset + total, length - total);
+            if (read == -1) {
+                break;
+            }
+            total += read;
+            position += read;
+        }
+        return total == 0 && length > 0 ? -1 : total;
+    }
+
+    @Override
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (in != null) {
+            in.close();
+            in = null;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+         http://www.apache.org/licenses/LICENSE-2.0
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+
+package org.apache.cordova.splashscreen;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+import android.util.TypedValue;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Decodes the splash drawable on a background thread, subsampled to the size it is displayed at
+ * instead of at full resolution. Decoded bitmaps are kept in a small LRU cache keyed by drawable,
+ * orientation and size, so rotating back and forth while the splash screen is up does not decode
+ * again.
+ */
+class SplashBitmapLoader {
+    private static final String LOG_TAG = "SplashBitmapLoader";
+
+    interface Callback {
+        /**
+         * Called on the UI thread with the decoded bitmap, or with null if the drawable is not a
+         * plain bitmap (e.g. a nine-patch or XML drawable) and has to be loaded by the framework.
+         */
+        void onBitmapLoaded(Bitmap bitmap);
+    }
+
+    private final ExecutorService executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final LruCache<String, Bitmap> cache;
+
+    /**
+     * @param cacheBytes upper bound for the memory held by cached bitmaps.
+     */
+    SplashBitmapLoader(ExecutorService executor, int cacheBytes) {
+        this.executor = executor;
+        this.cache = new LruCache<String, Bitmap>(Math.max(1, cacheBytes)) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getByteCount();
+            }
+        };
+    }
+
+    private static String cacheKey(int drawableId, int orientation, int targetWidth, int targetHeight) {
+        return drawableId + "/" + orientation + "/" + targetWidth + "x" + targetHeight;
+    }
+
+    /**
+     * Delivers the drawable as it should look in the given orientation, from the cache when
+     * possible. The resources must be configured for that orientation.
+     */
+    void load(final Resources resources, final int drawableId, final int orientation, final int targetWidth, final int targetHeight, final Callback callback) {
+        final String key = cacheKey(drawableId, orientation, targetWidth, targetHeight);
+        Bitmap cached = cache.get(key);
+        if (cached != null) {
+            callback.onBitmapLoaded(cached);
+            return;
+        }
+        executor.execute(new Runnable() {
+            public void run() {
+                final Bitmap bitmap = decodeAndCache(key, resources, drawableId, targetWidth, targetHeight);
+                mainHandler.post(new Runnable() {
+                    public void run() {
+                        callback.onBitmapLoaded(bitmap);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Like {@link #load}, but for an image file, e.g. one staged by {@link SplashPrefetcher}.
+     * Delivers null if the file cannot be decoded.
+     */
+    void loadFile(final String path, final int orientation, final int targetWidth, final int targetHeight, final Callback callback) {
+        final String key = path + "/" + orientation + "/" + targetWidth + "x" + targetHeight;
+        Bitmap cached = cache.get(key);
+        if (cached != null) {
+            callback.onBitmapLoaded(cached);
+            return;
+        }
+        executor.execute(new Runnable() {
+            public void run() {
+                final Bitmap bitmap = decodeFile(path, targetWidth, targetHeight);
+                if (bitmap != null) {
+                    cache.put(key, bitmap);
+                }
+                mainHandler.post(new Runnable() {
+                    public void run() {
+                        callback.onBitmapLoaded(bitmap);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Decodes the drawable for the given orientation in the background so a later {@link #load}
+     * finds it in the cache. That only works if the target size is the one {@link #load} will
+     * be called with, so it has to be derived from the real display size, which is the same in
+     * both orientations apart from being swapped.
+     */
+    void preload(final Resources resources, final int drawableId, final int orientation, final int targetWidth, final int targetHeight) {
+        final String key = cacheKey(drawableId, orientation, targetWidth, targetHeight);
+        if (cache.get(key) != null) {
+            return;
+        }
+        executor.execute(new Runnable() {
+            public void run() {
+                decodeAndCache(key, resources, drawableId, targetWidth, targetHeight);
+            }
+        });
+    }
+
+    /**
+     * Drops all cached bitmaps. Bitmaps still shown by a view stay valid.
+     */
+    void clear() {
+        cache.evictAll();
+    }
+
+    private Bitmap decodeAndCache(String key, Resources resources, int drawableId, int targetWidth, int targetHeight) {
+        Bitmap bitmap = cache.get(key);
+        if (bitmap == null) {
+            bitmap = decode(resources, drawableId, targetWidth, targetHeight);
+            if (bitmap != null) {
+                cache.put(key, bitmap);
+            }
+        }
+        return bitmap;
+    }
+
+    /**
+     * Decodes the drawable at the smallest power-of-two subsample that still covers the target
+     * size, or returns null if it cannot be decoded as a plain bitmap.
+     */
+    static Bitmap decode(Resources resources, int drawableId, int targetWidth, int targetHeight) {
+        if (!isPlainBitmap(resources, drawableId)) {
+            return null;
+        }
+        try {
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inJustDecodeBounds = true;
+            BitmapFactory.decodeResource(resources, drawableId, options);
+            if (options.outWidth <= 0 || options.outHeight <= 0) {
+                return null;
+            }
+
+            options.inJustDecodeBounds = false;
+            // The ImageView scales the bitmap to the screen anyway; skip the density scaling
+            // that would otherwise enlarge low-density drawables at decode time.
+            options.inScaled = false;
+            options.inSampleSize = calculateInSampleSize(options.outWidth, options.outHeight, targetWidth, targetHeight);
+            return BitmapFactory.decodeResource(resources, drawableId, options);
+        } catch (OutOfMemoryError e) {
+            Log.w(LOG_TAG, "Not enough memory to decode splash drawable", e);
+            return null;
+        } catch (Resources.NotFoundException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Decodes an image file the same way {@link #decode} decodes a drawable.
+     */
+    static Bitmap decodeFile(String path, int targetWidth, int targetHeight) {
+        try {
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inJustDecodeBounds = true;
+            BitmapFactory.decodeFile(path, options);
+            if (options.outWidth <= 0 || options.outHeight <= 0) {
+                return null;
+            }
+
+            options.inJustDecodeBounds = false;
+            options.inSampleSize = calculateInSampleSize(options.outWidth, options.outHeight, targetWidth, targetHeight);
+            return BitmapFactory.decodeFile(path, options);
+        } catch (OutOfMemoryError e) {
+            Log.w(LOG_TAG, "Not enough memory to decode splash image " + path, e);
+            return null;
+        }
+    }
+
+    /**
+     * Both CENTER_CROP ("SplashMaintainAspectRatio") and FIT_XY fill the whole view, so either
+     * way the image must not drop below the target size on either axis.
+     */
+    static int calculateInSampleSize(int width, int height, int targetWidth, int targetHeight) {
+        int inSampleSize = 1;
+        if (targetWidth <= 0 || targetHeight <= 0) {
+            return inSampleSize;
+        }
+        while (width / (inSampleSize * 2) >= targetWidth && height / (inSampleSize * 2) >= targetHeight) {
+            inSampleSize *= 2;
+        }
+        return inSampleSize;
+    }
+
+    private static boolean isPlainBitmap(Resources resources, int drawableId) {
+        TypedValue value = new TypedValue();
+        try {
+            resources.getValue(drawableId, value, true);
+        } catch (Resources.NotFoundException e) {
+            return false;
+        }
+        if (value.string == null) {
+            return false;
+        }
+        String file = value.string.toString().toLowerCase();
+        return !file.endsWith(".9.png") && (file.endsWith(".png") || file.endsWith(".jpg")
+                || file.endsWith(".jpeg") || file.endsWith(".webp"));
+    }
+}
@@ -0,0 +1,80 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+         http://www.apache.org/licenses/LICENSE-2.0
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+
+package org.apache.cordova.splashscreen;
+
+import android.app.Activity;
+import android.app.Dialog;
+import android.app.ProgressDialog;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Splash screen windows and flags of one Activity, shared by the plugin instances of the
+ * WebViews it hosts. Every Activity gets its own, so a second Cordova Activity, or one recreated
+ * after a configuration change, neither dismisses nor leaks the windows of another.
+ *
+ * Controllers are looked up by Activity in a weak registry. The dialogs hold on to their
+ * Activity, so {@link #detach} must be called when it is destroyed; it dismisses whatever is
+ * still showing and drops the entry. All fields are only used on the UI thread.
+ */
+class SplashController {
+    private static final Map<Activity, SplashController> CONTROLLERS = new WeakHashMap<Activity, SplashController>();
+
+    Dialog splashDialog;
+    ProgressDialog spinnerDialog;
+    boolean lastHideAfterDelay; // https://issues.apache.org/jira/browse/CB-9094
+    private int attached;
+
+    private SplashController() {
+    }
+
+    /**
+     * Returns the controller of the given Activity, creating it if needed.
+     */
+    static synchronized SplashController attach(Activity activity) {
+        SplashController controller = CONTROLLERS.get(activity);
+        if (controller == null) {
+            controller = new SplashController();
+            CONTROLLERS.put(activity, controller);
+        }
+        controller.attached++;
+        return controller;
+    }
+
+    /**
+     * Releases a controller obtained from {@link #attach}. Once the last plugin instance of the
+     * Activity has let go, its windows are dismissed and the controller is forgotten.
+     */
+    static synchronized void detach(Activity activity, SplashController controller) {
+        if (--controller.attached > 0) {
+            return;
+        }
+        if (controller.splashDialog != null && controller.splashDialog.isShowing()) {
+            controller.splashDialog.dismiss();
+        }
+        if (controller.spinnerDialog != null && controller.spinnerDialog.isShowing()) {
+            controller.spinnerDialog.dismiss();
+        }
+        controller.splashDialog = null;
+        controller.spinnerDialog = null;
+        if (CONTROLLERS.get(activity) == controller) {
+            CONTROLLERS.remove(activity);
+        }
+    }
+}
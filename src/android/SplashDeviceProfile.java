@@ -0,0 +1,128 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+         http://www.apache.org/licenses/LICENSE-2.0
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+
+package org.apache.cordova.splashscreen;
+
+import android.app.Activity;
+import android.app.ActivityManager;
+import android.content.Context;
+import android.os.Build;
+import android.view.Display;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * What the device can afford at startup, probed once: whether it is a low-RAM device, its memory
+ * class, CPU count and display size, summed up as a low, mid or high tier. Each tier maps to the
+ * splash mode it gets: the full welcome video, the splash image only, or the splash image
+ * decoded at a reduced size.
+ */
+class SplashDeviceProfile {
+    static final String TIER_LOW = "low";
+    static final String TIER_MID = "mid";
+    static final String TIER_HIGH = "high";
+
+    static final String MODE_VIDEO = "video";
+    static final String MODE_IMAGE = "image";
+    static final String MODE_DOWNSAMPLED = "downsampled";
+
+    // Memory class, in MB, at or below which a device is low-end, and at or above which it is high-end.
+    private static final int LOW_MEMORY_CLASS = 64;
+    private static final int HIGH_MEMORY_CLASS = 192;
+    private static final int LOW_CPU_COUNT = 2;
+    private static final int HIGH_CPU_COUNT = 6;
+    // Displays with more pixels than this need a high memory class not to count as low-end.
+    private static final int LARGE_DISPLAY_PIXELS = 1920 * 1080;
+
+    final boolean lowRamDevice;
+    final int memoryClass;
+    final int cpuCount;
+    final int displayWidth;
+    final int displayHeight;
+    final String tier;
+    /**
+     * Splash mode chosen for this device, one of the MODE_ constants.
+     */
+    String mode = MODE_VIDEO;
+
+    private SplashDeviceProfile(boolean lowRamDevice, int memoryClass, int cpuCount, int displayWidth, int displayHeight) {
+        this.lowRamDevice = lowRamDevice;
+        this.memoryClass = memoryClass;
+        this.cpuCount = cpuCount;
+        this.displayWidth = displayWidth;
+        this.displayHeight = displayHeight;
+        this.tier = classify();
+    }
+
+    @SuppressWarnings("deprecation")
+    static SplashDeviceProfile probe(Activity activity) {
+        ActivityManager activityManager = (ActivityManager) activity.getSystemService(Context.ACTIVITY_SERVICE);
+        boolean lowRam = Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT && activityManager.isLowRamDevice();
+        Display display = activity.getWindowManager().getDefaultDisplay();
+        return new SplashDeviceProfile(lowRam, activityManager.getMemoryClass(),
+                Runtime.getRuntime().availableProcessors(), display.getWidth(), display.getHeight());
+    }
+
+    private String classify() {
+        long pixels = (long) displayWidth * displayHeight;
+        if (lowRamDevice || memoryClass <= LOW_MEMORY_CLASS || cpuCount <= LOW_CPU_COUNT
+                || (pixels > LARGE_DISPLAY_PIXELS && memoryClass < HIGH_MEMORY_CLASS / 2)) {
+            return TIER_LOW;
+        }
+        if (memoryClass >= HIGH_MEMORY_CLASS && cpuCount >= HIGH_CPU_COUNT) {
+            return TIER_HIGH;
+        }
+        return TIER_MID;
+    }
+
+    static boolean isMode(String mode) {
+        return MODE_VIDEO.equals(mode) || MODE_IMAGE.equals(mode) || MODE_DOWNSAMPLED.equals(mode);
+    }
+
+    /**
+     * Whether the welcome video may be played.
+     */
+    boolean playsVideo() {
+        return MODE_VIDEO.equals(mode);
+    }
+
+    /**
+     * How much smaller than the display the splash image is decoded.
+     */
+    int imageScaleDivisor() {
+        return MODE_DOWNSAMPLED.equals(mode) ? 2 : 1;
+    }
+
+    JSONObject toJSON() throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("tier", tier);
+        json.put("mode", mode);
+        json.put("lowRamDevice", lowRamDevice);
+        json.put("memoryClass", memoryClass);
+        json.put("cpuCount", cpuCount);
+        json.put("displayWidth", displayWidth);
+        json.put("displayHeight", displayHeight);
+        return json;
+    }
+
+    @Override
+    public String toString() {
+        return "tier " + tier + " (lowRam=" + lowRamDevice + ", memoryClass=" + memoryClass + "MB, cpus=" + cpuCount
+                + ", display=" + displayWidth + "x" + displayHeight + "), splash mode " + mode;
+    }
+}
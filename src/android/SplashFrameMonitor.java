@@ -0,0 +1,131 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+         http://www.apache.org/licenses/LICENSE-2.0
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+
+package org.apache.cordova.splashscreen;
+
+import android.os.Build;
+import android.view.Choreographer;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Measures how smoothly the UI thread renders while the splash screen is up and while it hands
+ * over to the WebView, from the intervals between the frames Choreographer reports.
+ *
+ * An interval longer than one and a half refresh periods is a slow frame; the refresh periods it
+ * spans beyond the first are dropped frames. Intervals are also counted in a histogram.
+ * Requires Android 4.1, see {@link #isSupported}.
+ */
+class SplashFrameMonitor implements Choreographer.FrameCallback {
+    // Upper bounds, in milliseconds, of the histogram buckets; the last bucket is unbounded.
+    private static final int[] BUCKETS = { 16, 33, 50, 100, 250, 500 };
+
+    private final long refreshPeriodNanos;
+    private boolean running;
+    private long firstFrameNanos;
+    private long lastFrameNanos;
+    private int frames;
+    private int slowFrames;
+    private int droppedFrames;
+    private long maxIntervalNanos;
+    private final int[] histogram = new int[BUCKETS.length + 1];
+
+    SplashFrameMonitor(float refreshRate) {
+        this.refreshPeriodNanos = (long) (1000000000L / (refreshRate > 0 ? refreshRate : 60));
+    }
+
+    static boolean isSupported() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN;
+    }
+
+    /**
+     * Starts counting frames, discarding earlier counts. Must be called on the UI thread.
+     */
+    synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        firstFrameNanos = 0;
+        lastFrameNanos = 0;
+        frames = 0;
+        slowFrames = 0;
+        droppedFrames = 0;
+        maxIntervalNanos = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = 0;
+        }
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    /**
+     * Stops counting frames. Must be called on the UI thread.
+     */
+    synchronized void stop() {
+        if (running) {
+            running = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+    }
+
+    @Override
+    public synchronized void doFrame(long frameTimeNanos) {
+        if (!running) {
+            return;
+        }
+        if (lastFrameNanos == 0) {
+            firstFrameNanos = frameTimeNanos;
+        } else {
+            long interval = frameTimeNanos - lastFrameNanos;
+            frames++;
+            maxIntervalNanos = Math.max(maxIntervalNanos, interval);
+            if (interval * 2 > refreshPeriodNanos * 3) {
+                slowFrames++;
+                droppedFrames += Math.max(0, Math.round((double) interval / refreshPeriodNanos) - 1);
+            }
+            long intervalMs = interval / 1000000L;
+            int bucket = 0;
+            while (bucket < BUCKETS.length && intervalMs > BUCKETS[bucket]) {
+                bucket++;
+            }
+            histogram[bucket]++;
+        }
+        lastFrameNanos = frameTimeNanos;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    /**
+     * Counts of the last (or current) monitoring period.
+     */
+    synchronized JSONObject toJSON() throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("running", running);
+        json.put("refreshPeriodMs", refreshPeriodNanos / 1000000.0);
+        json.put("durationMs", lastFrameNanos == 0 ? 0 : (lastFrameNanos - firstFrameNanos) / 1000000.0);
+        json.put("frames", frames);
+        json.put("slowFrames", slowFrames);
+        json.put("droppedFrames", droppedFrames);
+        json.put("maxFrameMs", maxIntervalNanos / 1000000.0);
+        JSONObject buckets = new JSONObject();
+        for (int i = 0; i < histogram.length; i++) {
+            buckets.put(i < BUCKETS.length ? "<=" + BUCKETS[i] : ">" + BUCKETS[BUCKETS.length - 1], histogram[i]);
+        }
+        json.put("histogram", buckets);
+        return json;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+         http://www.apache.org/licenses/LICENSE-2.0
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+
+package org.apache.cordova.splashscreen;
+
+import android.util.Log;
+import android.view.View;
+import android.widget.ImageView;
+import android.widget.ProgressBar;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Builds the splash view hierarchy on a background thread ahead of time, like
+ * AsyncLayoutInflater, so that showing the splash screen only has to attach it to the dialog.
+ *
+ * The views are not attached to a window until they are taken, which is what makes creating
+ * them off the UI thread possible. If that fails anyway, e.g. because a view needs a Looper, or
+ * nothing was preloaded, {@link #take} builds the hierarchy on the calling thread instead.
+ */
+class SplashLayoutPreloader {
+    private static final String LOG_TAG = "SplashScreen";
+
+    /**
+     * The splash views the plugin works with.
+     */
+    static class Layout {
+        final View root;
+        final ImageView image;
+        final ProgressBar spinner;
+
+        Layout(View root, ImageView image, ProgressBar spinner) {
+            this.root = root;
+            this.image = image;
+            this.spinner = spinner;
+        }
+    }
+
+    interface Builder {
+        /**
+         * Inflates and sets up the splash views. Called on a background thread, or on the UI
+         * thread as a fallback.
+         */
+        Layout build();
+    }
+
+    private final ExecutorService executor;
+    private final Builder builder;
+    private final SplashTimings timings;
+    private Future<Layout> pending;
+
+    SplashLayoutPreloader(ExecutorService executor, Builder builder, SplashTimings timings) {
+        this.executor = executor;
+        this.builder = builder;
+        this.timings = timings;
+    }
+
+    /**
+     * Starts building the layout in the background, unless it is already built or being built.
+     */
+    synchronized void preload() {
+        if (pending != null) {
+            return;
+        }
+        pending = executor.submit(new Callable<Layout>() {
+            public Layout call() {
+                timings.begin("preinflateLayout");
+                try {
+                    return builder.build();
+                } finally {
+                    timings.end("preinflateLayout");
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the preloaded layout, waiting for it if it is still being built, or builds one on
+     * the calling thread. Each preloaded layout is only handed out once.
+     */
+    Layout take() {
+        Future<Layout> future;
+        synchronized (this) {
+            future = pending;
+            pending = null;
+        }
+        // A build that has started is not cancelled; waiting for it is cheaper than starting over.
+        if (future != null && (future.isDone() || !future.cancel(false))) {
+            try {
+                return future.get();
+            } catch (ExecutionException e) {
+                Log.w(LOG_TAG, "Could not inflate the splash layout in the background", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Drops the preloaded layout, if any, so it does not keep the Activity alive.
+     */
+    synchronized void clear() {
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+         http://www.apache.org/licenses/LICENSE-2.0
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+
+package org.apache.cordova.splashscreen;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Stages the welcome video and splash image the next launch should show, so that launch neither
+ * downloads nor decodes anything for the first time.
+ *
+ * Remote videos are downloaded into the {@link SplashVideoCache}. The image is decoded once at
+ * the size of the display and stored in app-private storage. What was staged is recorded in the
+ * {@link SplashStateStore} for the next launch to pick up.
+ */
+class SplashPrefetcher {
+    private static final String LOG_TAG = "SplashPrefetcher";
+    private static final String ASSET_PREFIX = "file:///android_asset/";
+    private static final String STAGING_DIR = "splash";
+    private static final String STAGED_IMAGE = "next_image.png";
+    private static final int CONNECT_TIMEOUT = 10000;
+    private static final int READ_TIMEOUT = 15000;
+
+    interface Callback {
+        /**
+         * Called on a background thread once staging is done, with null on success or a
+         * description of what could not be staged.
+         */
+        void onPrefetched(String error);
+    }
+
+    private final Context context;
+    private final ExecutorService executor;
+    private final SplashStateStore state;
+    private final SplashVideoCache videoCache;
+
+    /**
+     * @param videoCache cache to download remote videos into, or null if it is disabled.
+     */
+    SplashPrefetcher(Context context, ExecutorService executor, SplashStateStore state, SplashVideoCache videoCache) {
+        this.context = context;
+        this.executor = executor;
+        this.state = state;
+        this.videoCache = videoCache;
+    }
+
+    /**
+     * Stages the given video and image in the background. Either may be null.
+     *
+     * @param videoPath        video path relative to the www folder, as passed to show().
+     * @param videoUrl         the video path resolved against the page.
+     * @param currentVideoPath video the next launch would otherwise play; staging a different
+     *                         one lets "SplashScreenVideoShowOnlyOnce" show it once again.
+     * @param imageUrl         the image path resolved against the page.
+     */
+    void prefetch(final String videoPath, final String videoUrl, final String currentVideoPath,
+                  final String imageUrl, final int targetWidth, final int targetHeight, final Callback callback) {
+        executor.execute(new Runnable() {
+            public void run() {
+                String error = null;
+                String stagedVideo = null;
+                if (videoPath != null) {
+                    if (stageVideo(videoUrl)) {
+                        stagedVideo = videoPath;
+                    } else {
+                        error = "Could not prefetch video " + videoUrl;
+                    }
+                }
+                File stagedImage = null;
+                if (imageUrl != null) {
+                    stagedImage = stageImage(imageUrl, targetWidth, targetHeight);
+                    if (stagedImage == null) {
+                        error = error == null ? "" : error + "; ";
+                        error += "Could not prefetch image " + imageUrl;
+                    }
+                }
+                state.recordStaged(stagedVideo, stagedVideo != null && !stagedVideo.equals(currentVideoPath), stagedImage);
+                callback.onPrefetched(error);
+            }
+        });
+    }
+
+    private boolean stageVideo(String url) {
+        if (SplashVideoCache.isRemote(url)) {
+            return videoCache != null && videoCache.prefetch(url);
+        }
+        // Local videos only need to exist; they are read straight from the APK or disk.
+        try {
+            openStream(url).close();
+            return true;
+        } catch (IOException e) {
+            Log.w(LOG_TAG, "Splash video " + url + " not found", e);
+            return false;
+        }
+    }
+
+    private File stageImage(String url, int targetWidth, int targetHeight) {
+        File dir = new File(context.getFilesDir(), STAGING_DIR);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            Log.w(LOG_TAG, "Could not create staging directory " + dir);
+            return null;
+        }
+        File download = new File(dir, STAGED_IMAGE + ".download");
+        File decoded = new File(dir, STAGED_IMAGE + ".tmp");
+        File staged = new File(dir, STAGED_IMAGE);
+        try {
+            InputStream in = openStream(url);
+            try {
+                OutputStream out = new FileOutputStream(download);
+                try {
+                    byte[] buffer = new byte[16 * 1024];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        out.write(buffer, 0, read);
+                    }
+                } finally {
+                    out.close();
+                }
+            } finally {
+                in.close();
+            }
+
+            Bitmap bitmap = SplashBitmapLoader.decodeFile(download.getAbsolutePath(), targetWidth, targetHeight);
+            if (bitmap == null) {
+                Log.w(LOG_TAG, "Could not decode splash image " + url);
+                return null;
+            }
+            OutputStream out = new FileOutputStream(decoded);
+            try {
+                bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+            } finally {
+                out.close();
+                bitmap.recycle();
+            }
+            if (!decoded.renameTo(staged)) {
+                throw new IOException("Could not move " + decoded + " to " + staged);
+            }
+            return staged;
+        } catch (IOException e) {
+            Log.w(LOG_TAG, "Could not prefetch splash image " + url, e);
+            return null;
+        } finally {
+            download.delete();
+            decoded.delete();
+        }
+    }
+
+    private InputStream openStream(String url) throws IOException {
+        if (url.startsWith(ASSET_PREFIX)) {
+            return context.getAssets().open(url.substring(ASSET_PREFIX.length()));
+        }
+        URLConnection connection = new URL(url).openConnection();
+        connection.setConnectTimeout(CONNECT_TIMEOUT);
+        connection.setReadTimeout(READ_TIMEOUT);
+        return connection.getInputStream();
+    }
+}
@@ -17,31 +17,32 @@
 
 package org.apache.cordova.splashscreen;
 
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.app.ActivityManager;
 import android.app.Dialog;
 import android.app.ProgressDialog;
 import android.content.Context;
 import android.content.DialogInterface;
-import android.content.SharedPreferences;
-import android.content.res.AssetFileDescriptor;
-import android.content.res.AssetManager;
 import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
 import android.graphics.Color;
+import android.graphics.Point;
 import android.graphics.drawable.ColorDrawable;
-import android.media.AudioManager;
-import android.media.MediaPlayer;
-import android.net.Uri;
+import android.os.Build;
 import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.Display;
 import android.view.Gravity;
 import android.view.LayoutInflater;
-import android.view.SurfaceHolder;
 import android.view.SurfaceView;
 import android.view.View;
+import android.view.ViewStub;
 import android.view.ViewGroup.LayoutParams;
 import android.view.WindowManager;
-import android.view.animation.Animation;
-import android.view.animation.AlphaAnimation;
 import android.view.animation.DecelerateInterpolator;
 import android.widget.ImageView;
 import android.widget.LinearLayout;
@@ -49,101 +50,214 @@ import android.widget.ProgressBar;
 import android.widget.RelativeLayout;
 
 import org.apache.cordova.CallbackContext;
+import org.apache.cordova.ConfigXmlParser;
 import org.apache.cordova.CordovaPlugin;
-import org.apache.cordova.CordovaWebView;
 import org.json.JSONArray;
 import org.json.JSONException;
 
+import java.io.File;
 import java.io.IOException;
 
-import static android.content.Context.MODE_PRIVATE;
-
 public class SplashScreen extends CordovaPlugin {
     private static final String LOG_TAG = "SplashScreen";
-    // Cordova 3.x.x has a copy of this plugin bundled with it (SplashScreenInternal.java).
-    // Enable functionality only if running on 4.x.x.
-    private static final boolean HAS_BUILT_IN_SPLASH_SCREEN = Integer.valueOf(CordovaWebView.CORDOVA_VERSION.split("\\.")[0]) < 4;
     private static final int DEFAULT_SPLASHSCREEN_DURATION = 3000;
     private static final int DEFAULT_FADE_DURATION = 500;
-    private static Dialog splashDialog;
-    private static ProgressDialog spinnerDialog;
+    private static final int DEFAULT_ADAPTIVE_MAX_DELAY = 10000;
+    // How long frames are still monitored after the splash screen is dismissed.
+    private static final int DEFAULT_FRAME_MONITOR_TAIL = 500;
+    private static final int DEFAULT_VIDEO_PREPARE_TIMEOUT = 5000;
+    // Share of the app's memory class the splash bitmap cache may use.
+    private static final int BITMAP_CACHE_FRACTION = 8;
+    private static final int DEFAULT_VIDEO_CACHE_SIZE_MB = 50;
+
+    // States of the splash screen. Only read and changed on the UI thread.
+    private static final int STATE_IDLE = 0;
+    private static final int STATE_SHOWING_IMAGE = 1;
+    private static final int STATE_PLAYING_VIDEO = 2;
+    private static final int STATE_FADING = 3;
+    private static final int STATE_HIDDEN = 4;
+
+    // Show/hide requests from JS that have not been applied yet.
+    private static final int REQUEST_NONE = 0;
+    private static final int REQUEST_SHOW = 1;
+    private static final int REQUEST_HIDE = 2;
+    // Process-wide on purpose: the launch splash screen is not shown again by a recreated Activity.
     private static boolean firstShow = true;
-    private static boolean lastHideAfterDelay; // https://issues.apache.org/jira/browse/CB-9094
+    /**
+     * Splash windows and flags of the Activity hosting this plugin instance.
+     */
+    private SplashController controller;
     private boolean splashLoaded;
     /**
      * Displays the splash drawable.
      */
     private ImageView splashImageView;
+    /**
+     * Root of the splash layout shown in the dialog.
+     */
+    private View splashRoot;
 
     /**
      * Remember last device orientation to detect orientation changes.
      */
     private int orientation;
 
-    MediaPlayer player;
-    SurfaceHolder surfaceHolder;
+    SplashVideoEngine videoEngine;
+    SurfaceView videoSurface;
     LinearLayout ll_skip;
+    /**
+     * Spinner inside the splash layout, used when "SplashScreenSpinnerMode" is "inline".
+     */
+    private ProgressBar splashSpinner;
 
     private boolean isLoadFinished = false;
-    private boolean isVideoDisplayed = false;
-
-    private static boolean firstMoviewShow = true;
+    /**
+     * Whether the app is in the background while the welcome video is up.
+     */
+    private boolean videoPaused;
+    /**
+     * Position, in milliseconds, to continue the welcome video from once it is started.
+     */
+    private int resumePosition;
+    /**
+     * URL the welcome video being played was resolved to, which its position is recorded for.
+     */
+    private String videoUrl;
 
-    public static SharedPreferences prefrence_config;
-    public static final String WELCOME_VIDEO = "WelcomeVedio";
-    public static final String WELCOME_VIDEO_ISPLAY = "WelcomeVedio_isplay";
-    private boolean isplay = false;
+    public static final String WELCOME_VIDEO = SplashStateStore.PREFERENCES_NAME;
+    public static final String WELCOME_VIDEO_ISPLAY = SplashStateStore.VIDEO_PLAYED;
+    private SplashStateStore splashState;
     private String videoPath;
-
-    // Helper to be compile-time compatible with both Cordova 3.x and 4.x.
-    private View getView() {
-        try {
-            return (View)webView.getClass().getMethod("getView").invoke(webView);
-        } catch (Exception e) {
-            return (View)webView;
-        }
-    }
+    // Start page from config.xml, which the video path is resolved against before the WebView has loaded anything.
+    private String launchUrl;
+    private SplashVideoPrewarmer videoPrewarmer;
+    /**
+     * Every change to the splash screen is made from this handler, so its state needs no locking.
+     */
+    private final Handler uiHandler = new Handler(Looper.getMainLooper());
+    private int state = STATE_IDLE;
+    /**
+     * Latest show/hide request from JS; guarded by uiHandler. Requests arriving before the
+     * previous one was applied replace it, so a burst of calls costs one UI operation.
+     */
+    private int pendingRequest = REQUEST_NONE;
+    private String pendingVideoPath;
+    private SplashTimings timings;
+    private final ResourceIdCache resourceIds = ResourceIdCache.getInstance();
+    private SplashBitmapLoader bitmapLoader;
+    private SplashVideoCache videoCache;
+    /**
+     * Counts dropped frames while the splash screen is up, if "SplashScreenFrameMonitor" is set.
+     */
+    private SplashFrameMonitor frameMonitor;
+    private SplashDeviceProfile deviceProfile;
+    private SplashLayoutPreloader layoutPreloader;
+    private SplashPrefetcher prefetcher;
+    private boolean pageFinished;
+    /**
+     * Whether the app has signalled it is ready to be shown, see "SplashScreenReadySignal".
+     */
+    private boolean appReady;
+    /**
+     * When the splash screen last started waiting to be hidden automatically, in uptime
+     * milliseconds.
+     */
+    private long autoHideStart;
+    private Runnable pendingPrefetch;
+    /**
+     * Shows the launch splash screen once the persisted state is loaded.
+     */
+    private Runnable showLaunchSplashScreen;
+    /**
+     * Set by onDestroy; the Activity's window is gone, so nothing may be shown any more.
+     */
+    private boolean destroyed;
 
     @Override
     protected void pluginInitialize() {
-        if (HAS_BUILT_IN_SPLASH_SCREEN) {
-            return;
-        }
+        timings = new SplashTimings(preferences.getBoolean("SplashScreenTrace", false));
+        timings.begin("pluginInitialize");
+        // Start loading the persisted state first, so it is ready by the time it is needed.
+        splashState = new SplashStateStore(cordova.getActivity(), cordova.getThreadPool());
+        controller = SplashController.attach(cordova.getActivity());
         // Make WebView invisible while loading URL
         // CB-11326 Ensure we're calling this on UI thread
-        cordova.getActivity().runOnUiThread(new Runnable() {
+        runOnUiThread(new Runnable() {
             @Override
             public void run() {
-                getView().setVisibility(View.INVISIBLE);
+                webView.getView().setVisibility(View.INVISIBLE);
             }
         });
-        prefrence_config = cordova.getActivity().getSharedPreferences(WELCOME_VIDEO,MODE_PRIVATE);
-        isplay = prefrence_config.getBoolean(WELCOME_VIDEO_ISPLAY, false);
-
         int drawableId = preferences.getInteger("SplashDrawableId", 0);
         if (drawableId == 0) {
+            timings.begin("resolveDrawable");
             String splashResource = preferences.getString("SplashScreen", "screen");
             if (splashResource != null) {
-                drawableId = cordova.getActivity().getResources().getIdentifier(splashResource, "drawable", cordova.getActivity().getClass().getPackage().getName());
+                drawableId = resourceIds.get(cordova.getActivity(), splashResource, "drawable", cordova.getActivity().getClass().getPackage().getName());
                 if (drawableId == 0) {
-                    drawableId = cordova.getActivity().getResources().getIdentifier(splashResource, "drawable", cordova.getActivity().getPackageName());
+                    drawableId = resourceIds.get(cordova.getActivity(), splashResource, "drawable");
                 }
                 preferences.set("SplashDrawableId", drawableId);
             }
+            timings.end("resolveDrawable");
         }
 
         // Save initial orientation.
         orientation = cordova.getActivity().getResources().getConfiguration().orientation;
 
+        deviceProfile = SplashDeviceProfile.probe(cordova.getActivity());
+        deviceProfile.mode = selectSplashMode(deviceProfile.tier);
+        Log.d(LOG_TAG, "Device profile: " + deviceProfile);
+
+        if (preferences.getBoolean("SplashScreenVideoCache", true)) {
+            videoCache = new SplashVideoCache(new File(cordova.getActivity().getCacheDir(), "splash-video"),
+                    preferences.getInteger("SplashScreenVideoCacheSize", DEFAULT_VIDEO_CACHE_SIZE_MB) * 1024L * 1024L,
+                    cordova.getThreadPool());
+        }
+        videoPrewarmer = new SplashVideoPrewarmer(cordova.getActivity(), cordova.getThreadPool(), videoCache);
+        prefetcher = new SplashPrefetcher(cordova.getActivity(), cordova.getThreadPool(), splashState, videoCache);
+        ActivityManager activityManager = (ActivityManager) cordova.getActivity().getSystemService(Context.ACTIVITY_SERVICE);
+        bitmapLoader = new SplashBitmapLoader(cordova.getThreadPool(),
+                activityManager.getMemoryClass() * 1024 * 1024 / BITMAP_CACHE_FRACTION);
+        preloadResourceIds();
+        layoutPreloader = new SplashLayoutPreloader(cordova.getThreadPool(), new SplashLayoutPreloader.Builder() {
+            public SplashLayoutPreloader.Layout build() {
+                return buildSplashLayout();
+            }
+        }, timings);
+        if (preferences.getBoolean("SplashScreenFrameMonitor", false) && SplashFrameMonitor.isSupported()) {
+            frameMonitor = new SplashFrameMonitor(cordova.getActivity().getWindowManager().getDefaultDisplay().getRefreshRate());
+        }
+
         if (firstShow) {
-            boolean autoHide = preferences.getBoolean("AutoHideSplashScreen", true);
-            showSplashScreen(autoHide);
+            final boolean autoHide = preferences.getBoolean("AutoHideSplashScreen", true);
+            final boolean enabled = isSplashScreenEnabled(autoHide);
+            if (enabled) {
+                layoutPreloader.preload();
+            }
+            final String pageUrl = getPageUrl();
+            showLaunchSplashScreen = new Runnable() {
+                public void run() {
+                    showSplashScreen(autoHide);
+                }
+            };
+            // Which video to play depends on the persisted state: decide on the thread that loads
+            // it, then let the UI thread show the splash screen, which no longer has to wait for it.
+            // Meanwhile the WebView finishes initializing and the layout is inflated in the background.
+            splashState.whenLoaded(new Runnable() {
+                public void run() {
+                    if (enabled) {
+                        prewarmVideo(getMovieUrl(), pageUrl);
+                    }
+                    uiHandler.post(showLaunchSplashScreen);
+                }
+            });
         }
 
         if (preferences.getBoolean("SplashShowOnlyFirstTime", true)) {
             firstShow = false;
         }
-
+        timings.end("pluginInitialize");
     }
 
     /**
@@ -153,6 +267,45 @@ public class SplashScreen extends CordovaPlugin {
         return preferences.getBoolean("SplashMaintainAspectRatio", false);
     }
 
+    /**
+     * Splash mode for the given device tier: "SplashScreenProfile" if it names a mode, otherwise
+     * the "SplashScreenProfileLow" / "SplashScreenProfileMid" / "SplashScreenProfileHigh"
+     * preference for the tier. Low-end devices show the image only by default, the others play
+     * the video.
+     */
+    private String selectSplashMode(String tier) {
+        String mode = preferences.getString("SplashScreenProfile", "auto").toLowerCase();
+        if (SplashDeviceProfile.isMode(mode)) {
+            return mode;
+        }
+        if (SplashDeviceProfile.TIER_LOW.equals(tier)) {
+            mode = preferences.getString("SplashScreenProfileLow", SplashDeviceProfile.MODE_IMAGE);
+        } else if (SplashDeviceProfile.TIER_HIGH.equals(tier)) {
+            mode = preferences.getString("SplashScreenProfileHigh", SplashDeviceProfile.MODE_VIDEO);
+        } else {
+            mode = preferences.getString("SplashScreenProfileMid", SplashDeviceProfile.MODE_VIDEO);
+        }
+        mode = mode.toLowerCase();
+        return SplashDeviceProfile.isMode(mode) ? mode : SplashDeviceProfile.MODE_VIDEO;
+    }
+
+    /**
+     * Shorter way to check value of "SplashScreenAdaptiveDelay" preference: hide the splash
+     * screen as soon as the app is ready, between "SplashScreenMinDelay" and
+     * "SplashScreenMaxDelay", instead of after "SplashScreenDelay".
+     */
+    private boolean isAdaptiveDelay () {
+        return preferences.getBoolean("SplashScreenAdaptiveDelay", false);
+    }
+
+    /**
+     * Whether the app signals it is ready by calling navigator.splashscreen.ready() rather
+     * than by the page finishing loading.
+     */
+    private boolean waitsForReadyCall () {
+        return "ready".equalsIgnoreCase(preferences.getString("SplashScreenReadySignal", "pageFinished"));
+    }
+
     private int getFadeDuration () {
         int fadeSplashScreenDuration = preferences.getBoolean("FadeSplashScreen", true) ?
                 preferences.getInteger("FadeSplashScreenDuration", DEFAULT_FADE_DURATION) : 0;
@@ -168,20 +321,37 @@ public class SplashScreen extends CordovaPlugin {
 
     @Override
     public void onPause(boolean multitasking) {
-        if (HAS_BUILT_IN_SPLASH_SCREEN) {
+        if (state == STATE_PLAYING_VIDEO) {
+            // Keep the player and its decoder around, the video goes on when the app comes back.
+            pauseVideo();
             return;
         }
         // hide the splash screen to avoid leaking a window
         this.removeSplashScreen(true);
     }
 
+    @Override
+    public void onResume(boolean multitasking) {
+        if (state == STATE_PLAYING_VIDEO && videoPaused) {
+            resumeVideo();
+        }
+    }
+
     @Override
     public void onDestroy() {
-        if (HAS_BUILT_IN_SPLASH_SCREEN) {
-            return;
+        destroyed = true;
+        if (showLaunchSplashScreen != null) {
+            uiHandler.removeCallbacks(showLaunchSplashScreen);
         }
         // hide the splash screen to avoid leaking a window
         this.removeSplashScreen(true);
+        releaseVideoEngine();
+        if (videoPrewarmer != null) {
+            videoPrewarmer.release();
+        }
+        stopVideoProxy();
+        layoutPreloader.clear();
+        SplashController.detach(cordova.getActivity(), controller);
         // If we set this to true onDestroy, we lose track when we go from page to page!
         //firstShow = true;
     }
@@ -189,21 +359,67 @@ public class SplashScreen extends CordovaPlugin {
     @Override
     public boolean execute(String action, JSONArray args, CallbackContext callbackContext) throws JSONException {
         if (action.equals("hide")) {
-            cordova.getActivity().runOnUiThread(new Runnable() {
-                public void run() {
-                    webView.postMessage("splashscreen", "hide");
-                }
-            });
+            requestSplashScreen(REQUEST_HIDE, null);
         } else if (action.equals("show")) {
+            String path = null;
             if(args != null && args.length() > 0)
             {
-                videoPath = args.getString(0);
+                path = args.getString(0);
+            }
+            // Start inflating while the request makes its way to the UI thread, which drops the
+            // layout again if there is a splash screen up already.
+            if (isSplashScreenEnabled(false)) {
+                layoutPreloader.preload();
             }
-            cordova.getActivity().runOnUiThread(new Runnable() {
+            requestSplashScreen(REQUEST_SHOW, path);
+        } else if (action.equals("prefetch")) {
+            final String prefetchVideo = args.isNull(0) || args.getString(0).length() == 0 ? null : args.getString(0);
+            final String prefetchImage = args.isNull(1) || args.getString(1).length() == 0 ? null : args.getString(1);
+            final CallbackContext prefetchCallback = callbackContext;
+            runOnUiThread(new Runnable() {
                 public void run() {
-                    webView.postMessage("splashscreen", "show");
+                    // Wait until the page has loaded, so the downloads don't compete with it.
+                    pendingPrefetch = new Runnable() {
+                        public void run() {
+                            prefetch(prefetchVideo, prefetchImage, prefetchCallback);
+                        }
+                    };
+                    if (pageFinished) {
+                        runPendingPrefetch();
+                    }
+                }
+            });
+            return true;
+        } else if (action.equals("ready")) {
+            runOnUiThread(new Runnable() {
+                public void run() {
+                    timings.mark("appReady");
+                    if (waitsForReadyCall()) {
+                        onAppReady();
+                    }
                 }
             });
+        } else if (action.equals("getDeviceProfile")) {
+            if (deviceProfile == null) {
+                callbackContext.error("Device profile is not available");
+            } else {
+                callbackContext.success(deviceProfile.toJSON());
+            }
+            return true;
+        } else if (action.equals("getFrameStats")) {
+            if (frameMonitor == null) {
+                callbackContext.error("Frame monitoring is not enabled");
+            } else {
+                callbackContext.success(frameMonitor.toJSON());
+            }
+            return true;
+        } else if (action.equals("getTimings")) {
+            if (timings == null) {
+                callbackContext.error("Splash screen timings are not available");
+            } else {
+                callbackContext.success(timings.toJSON());
+            }
+            return true;
         } else {
             return false;
         }
@@ -212,11 +428,62 @@ public class SplashScreen extends CordovaPlugin {
         return true;
     }
 
+    /**
+     * Records a show/hide request from JS and applies it on the UI thread. Only the latest of
+     * several requests made before the UI thread gets to them is applied.
+     */
+    private void requestSplashScreen(int request, String path) {
+        synchronized (uiHandler) {
+            boolean posted = pendingRequest != REQUEST_NONE;
+            pendingRequest = request;
+            if (path != null) {
+                pendingVideoPath = path;
+            }
+            if (!posted) {
+                uiHandler.post(applyRequest);
+            }
+        }
+    }
+
+    private final Runnable applyRequest = new Runnable() {
+        public void run() {
+            int request;
+            synchronized (uiHandler) {
+                request = pendingRequest;
+                pendingRequest = REQUEST_NONE;
+                if (pendingVideoPath != null) {
+                    videoPath = pendingVideoPath;
+                    pendingVideoPath = null;
+                }
+            }
+            if (destroyed) {
+                return;
+            }
+            if (request == REQUEST_SHOW) {
+                // A splash screen that is already up keeps playing its own video.
+                if (isSplashScreenEnabled(false) && !isSplashScreenShowing()) {
+                    prewarmVideo();
+                }
+                webView.postMessage("splashscreen", "show");
+            } else if (request == REQUEST_HIDE) {
+                webView.postMessage("splashscreen", "hide");
+            }
+        }
+    };
+
+    /**
+     * Runs the action right away when called on the UI thread, otherwise posts it to uiHandler.
+     */
+    private void runOnUiThread(Runnable action) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            action.run();
+        } else {
+            uiHandler.post(action);
+        }
+    }
+
     @Override
     public Object onMessage(String id, Object data) {
-        if (HAS_BUILT_IN_SPLASH_SCREEN) {
-            return null;
-        }
         if ("splashscreen".equals(id)) {
             if ("hide".equals(data.toString())) {
                 this.removeSplashScreen(false);
@@ -225,15 +492,81 @@ public class SplashScreen extends CordovaPlugin {
             }
         } else if ("spinner".equals(id)) {
             if ("stop".equals(data.toString())) {
-                getView().setVisibility(View.VISIBLE);
+                webView.getView().setVisibility(View.VISIBLE);
+                timings.mark("webViewVisible");
+                if (!waitsForReadyCall()) {
+                    onAppReady();
+                }
             }
         } else if ("onReceivedError".equals(id)) {
             this.spinnerStop();
+        } else if ("onPageFinished".equals(id)) {
+            timings.mark("pageFinished");
+            pageFinished = true;
+            runPendingPrefetch();
+            if (!waitsForReadyCall()) {
+                onAppReady();
+            }
         }
         return null;
     }
 
-    // Don't add @Override so that plugin still compiles on 3.x.x for a while
+    /**
+     * Called on the UI thread once the app is ready to be shown. In adaptive mode this hides
+     * the splash screen, but not before "SplashScreenMinDelay" has passed.
+     */
+    private void onAppReady() {
+        if (appReady) {
+            return;
+        }
+        appReady = true;
+        scheduleAdaptiveHide();
+    }
+
+    private void scheduleAdaptiveHide() {
+        if (!isAdaptiveDelay() || !controller.lastHideAfterDelay || state != STATE_SHOWING_IMAGE && state != STATE_PLAYING_VIDEO) {
+            return;
+        }
+        long shown = SystemClock.uptimeMillis() - autoHideStart;
+        long remaining = Math.max(0, preferences.getInteger("SplashScreenMinDelay", 0) - shown);
+        uiHandler.removeCallbacks(autoHide);
+        uiHandler.postDelayed(autoHide, remaining);
+    }
+
+    private void runPendingPrefetch() {
+        if (pendingPrefetch != null) {
+            Runnable prefetch = pendingPrefetch;
+            pendingPrefetch = null;
+            prefetch.run();
+        }
+    }
+
+    /**
+     * Stages the given video and image for the next launch. Must be called on the UI thread,
+     * which resolving the paths against the page requires.
+     */
+    @SuppressWarnings("deprecation")
+    private void prefetch(final String video, final String image, final CallbackContext callbackContext) {
+        Display display = cordova.getActivity().getWindowManager().getDefaultDisplay();
+        String currentVideo = splashState.getStagedVideoPath();
+        if (currentVideo == null) {
+            currentVideo = preferences.getString("SplashScreenVideoPath", "");
+        }
+        prefetcher.prefetch(video, video == null ? null : resolveVideoUrl(video), currentVideo,
+                image == null ? null : resolveVideoUrl(image), display.getWidth(), display.getHeight(),
+                new SplashPrefetcher.Callback() {
+            @Override
+            public void onPrefetched(String error) {
+                if (error == null) {
+                    callbackContext.success();
+                } else {
+                    callbackContext.error(error);
+                }
+            }
+        });
+    }
+
+    @Override
     public void onConfigurationChanged(Configuration newConfig) {
         if (newConfig.orientation != orientation) {
             orientation = newConfig.orientation;
@@ -242,256 +575,666 @@ public class SplashScreen extends CordovaPlugin {
             if (splashImageView != null) {
                 int drawableId = preferences.getInteger("SplashDrawableId", 0);
                 if (drawableId != 0) {
-                    splashImageView.setImageDrawable(cordova.getActivity().getResources().getDrawable(drawableId));
+                    loadSplashImage(drawableId);
                 }
             }
         }
     }
 
     private void removeSplashScreen(final boolean forceHideImmediately) {
-        isLoadFinished = true;
-        if(!isVideoDisplayed) {
-            ll_skip.setVisibility(View.VISIBLE);
-        }
-        cordova.getActivity().runOnUiThread(new Runnable() {
+        runOnUiThread(new Runnable() {
             public void run() {
-                if (splashDialog != null && splashDialog.isShowing()) {
-                    final int fadeSplashScreenDuration = getFadeDuration();
-                    // CB-10692 If the plugin is being paused/destroyed, skip the fading and hide it immediately
-                    if (fadeSplashScreenDuration > 0 && forceHideImmediately == false) {
-                        AlphaAnimation fadeOut = new AlphaAnimation(1, 0);
-                        fadeOut.setInterpolator(new DecelerateInterpolator());
-                        fadeOut.setDuration(fadeSplashScreenDuration);
-
-                        splashImageView.setAnimation(fadeOut);
-                        splashImageView.startAnimation(fadeOut);
-
-                        fadeOut.setAnimationListener(new Animation.AnimationListener() {
-                            @Override
-                            public void onAnimationStart(Animation animation) {
-                                spinnerStop();
-                            }
-
-                            @Override
-                            public void onAnimationEnd(Animation animation) {
-                                spinnerStop();
-                                if(isVideoDisplayed) {
-                                    if (splashDialog != null && splashDialog.isShowing()) {
-                                        splashDialog.dismiss();
-                                        splashDialog = null;
-                                        splashImageView = null;
-                                        splashLoaded = true;
-                                    }
-                                }
-                            }
-
-                            @Override
-                            public void onAnimationRepeat(Animation animation) {
-                            }
-                        });
-                    } else {
-                        spinnerStop();
-                        if(isVideoDisplayed) {
-                            splashDialog.dismiss();
-                            splashDialog = null;
-                            splashImageView = null;
-                            splashLoaded = true;
-                        }
+                timings.mark("removeSplashScreen");
+                isLoadFinished = true;
+                if (state == STATE_IDLE || state == STATE_HIDDEN) {
+                    return;
+                }
+                uiHandler.removeCallbacks(autoHide);
+                spinnerStop();
+                // CB-10692 If the plugin is being paused/destroyed, skip the fading and hide it immediately
+                if (forceHideImmediately) {
+                    releaseVideoEngine();
+                    dismissSplashDialog();
+                    return;
+                }
+                if (state == STATE_PLAYING_VIDEO) {
+                    // The page is ready: let the user skip the rest of the video, which
+                    // dismisses the splash screen when it completes.
+                    if (ll_skip != null) {
+                        ll_skip.setVisibility(View.VISIBLE);
                     }
+                    return;
                 }
+                if (state == STATE_FADING) {
+                    return;
+                }
+                final int fadeSplashScreenDuration = getFadeDuration();
+                if (fadeSplashScreenDuration <= 0) {
+                    dismissSplashDialog();
+                    return;
+                }
+                fadeOutSplashScreen(fadeSplashScreenDuration);
             }
         });
     }
 
-    private int getId(String idName)
-    {
-        return cordova.getActivity().getResources().getIdentifier(idName, "id", cordova.getActivity().getPackageName());
+    /**
+     * Fades the whole splash layout out, video container included, and dismisses the dialog.
+     * The layout is faded as a hardware layer by a property animation, so every frame of the
+     * fade is only recomposited instead of redrawn on the UI thread.
+     */
+    private void fadeOutSplashScreen(int duration) {
+        state = STATE_FADING;
+        final View root = splashRoot;
+        root.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+        root.animate()
+                .alpha(0)
+                .setDuration(duration)
+                .setInterpolator(new DecelerateInterpolator())
+                .setListener(new AnimatorListenerAdapter() {
+                    @Override
+                    public void onAnimationEnd(Animator animation) {
+                        root.setLayerType(View.LAYER_TYPE_NONE, null);
+                        onFadeOutEnd();
+                    }
+                });
     }
-    private int getLayout(String layoutName)
-    {
-        return cordova.getActivity().getResources().getIdentifier(layoutName, "layout", cordova.getActivity().getPackageName());
+
+    private void onFadeOutEnd() {
+        timings.mark("fadeOutEnd");
+        if (state == STATE_FADING) {
+            dismissSplashDialog();
+        }
     }
 
+    /**
+     * Path of the welcome video, relative to the www folder: the one passed to show(), the one
+     * staged by prefetch() in an earlier session, or the "SplashScreenVideoPath" preference.
+     * Reads the persisted state, see {@link SplashStateStore#whenLoaded}.
+     */
+    private String getMovieUrl() {
+        if (videoPath != null && videoPath.length() > 0) {
+            return videoPath;
+        }
+        String stagedVideoPath = splashState.getStagedVideoPath();
+        if (stagedVideoPath != null && stagedVideoPath.length() > 0) {
+            return stagedVideoPath;
+        }
+        return preferences.getString("SplashScreenVideoPath", "");
+    }
 
     /**
-     * Shows the splash screen over the full Activity
+     * URL of the page loaded in the WebView or, before it has started loading, e.g. during
+     * pluginInitialize, the start page configured by &lt;content src&gt; in config.xml.
      */
-    @SuppressWarnings("deprecation")
-    private void showSplashScreen(final boolean hideAfterDelay) {
-        final int splashscreenTime = preferences.getInteger("SplashScreenDelay", DEFAULT_SPLASHSCREEN_DURATION);
-        final int drawableId = preferences.getInteger("SplashDrawableId", 0);
+    private String getPageUrl() {
+        String pageUrl = webView.getUrl();
+        if (pageUrl != null) {
+            return pageUrl;
+        }
+        if (launchUrl == null) {
+            ConfigXmlParser parser = new ConfigXmlParser();
+            parser.parse(cordova.getActivity());
+            launchUrl = parser.getLaunchUrl();
+        }
+        return launchUrl;
+    }
 
-        final int fadeSplashScreenDuration = getFadeDuration();
-        final int effectiveSplashDuration = Math.max(0, splashscreenTime - fadeSplashScreenDuration);
+    /**
+     * Resolves a path relative to the www folder, like the welcome video, against the folder of
+     * the start page.
+     */
+    private String resolveVideoUrl(String movieUrl) {
+        return resolveVideoUrl(movieUrl, getPageUrl());
+    }
+
+    private static String resolveVideoUrl(String movieUrl, String pageUrl) {
+        int end = pageUrl.indexOf('?');
+        if (end < 0) {
+            end = pageUrl.indexOf('#');
+        }
+        if (end < 0) {
+            end = pageUrl.length();
+        }
+        int slash = pageUrl.lastIndexOf('/', end - 1);
+        if (slash < pageUrl.indexOf("://") + 3) {
+            // No path at all, e.g. https://example.com
+            return pageUrl.substring(0, end) + "/" + movieUrl;
+        }
+        return pageUrl.substring(0, slash + 1) + movieUrl;
+    }
 
-        lastHideAfterDelay = hideAfterDelay;
+    private boolean isVideoSkipped() {
+        if (!deviceProfile.playsVideo()) {
+            return true;
+        }
+        return preferences.getBoolean("SplashScreenVideoShowOnlyOnce", false) && splashState.wasVideoPlayedAtLaunch();
+    }
 
-        // If the splash dialog is showing don't try to show it again
-        if (splashDialog != null && splashDialog.isShowing()) {
-            return;
+    /**
+     * Creates the video engine chosen by the "SplashScreenVideoEngine" preference: "legacy"
+     * (default, MediaPlayer on a fixed 320x220 SurfaceView buffer), "surface" (MediaPlayer on a
+     * natively sized SurfaceView buffer) or "texture" (MediaPlayer on a natively sized
+     * TextureView).
+     */
+    private SplashVideoEngine createVideoEngine() {
+        String engine = preferences.getString("SplashScreenVideoEngine", "legacy");
+        if ("texture".equalsIgnoreCase(engine)) {
+            return new TextureVideoEngine();
         }
-        if (drawableId == 0 || (splashscreenTime <= 0 && hideAfterDelay)) {
+        return new MediaPlayerVideoEngine(!"surface".equalsIgnoreCase(engine));
+    }
+
+    /**
+     * Starts opening and preparing the welcome video in the background so that showing it only
+     * has to attach the engine to the splash surface.
+     */
+    private void prewarmVideo() {
+        prewarmVideo(getMovieUrl(), getPageUrl());
+    }
+
+    /**
+     * Like {@link #prewarmVideo()}, for a video path and page URL read beforehand. May be called
+     * on the thread loading the persisted state.
+     */
+    private void prewarmVideo(String movieUrl, String pageUrl) {
+        if (movieUrl.length() == 0 || isVideoSkipped()) {
             return;
         }
+        videoPrewarmer.start(resolveVideoUrl(movieUrl, pageUrl), movieUrl, videoEngineFactory);
+    }
 
-        cordova.getActivity().runOnUiThread(new Runnable() {
-            public void run() {
-                // Get reference to display
-                Display display = cordova.getActivity().getWindowManager().getDefaultDisplay();
-                final Context context = webView.getContext();
+    private final SplashVideoPrewarmer.EngineFactory videoEngineFactory = new SplashVideoPrewarmer.EngineFactory() {
+        public SplashVideoEngine create() {
+            return createVideoEngine();
+        }
+    };
 
-                // Use an ImageView to render the image because of its flexible scaling options.
+    /**
+     * Plays the welcome video on the given surface, using the pre-warmed engine when there is
+     * one.
+     */
+    private void startVideo(Context context, SurfaceView surface) {
+        videoSurface = surface;
+        videoPaused = false;
+        String movieUrl = getMovieUrl();
+        videoUrl = resolveVideoUrl(movieUrl);
+        // Continue where a previous launch left off if it was killed in the background.
+        resumePosition = splashState.getLastPosition(videoUrl);
+        if (!attachPrewarmedEngine(movieUrl)) {
+            openVideoEngine(context, movieUrl);
+        }
+    }
 
-                View video_view = LayoutInflater.from(context).inflate(getLayout("splash_welcome_video"),null);
-                LinearLayout ll_image =  (LinearLayout) video_view.findViewById(getId("imageview"));
-                SurfaceView surface = (SurfaceView) video_view.findViewById(getId("sv_video"));
-                ll_skip = (LinearLayout) video_view.findViewById(getId("ll_skip"));
-                if(splashLoaded)
-                {
-                    ll_skip.setVisibility(View.VISIBLE);
+    /**
+     * Plays the pre-warmed video, if this video is being pre-warmed.
+     *
+     * @return false if the caller has to open and prepare the video itself.
+     */
+    private boolean attachPrewarmedEngine(final String movieUrl) {
+        uiHandler.postDelayed(videoPrepareTimeout, getVideoPrepareTimeout());
+        boolean prewarming = videoPrewarmer.acquire(resolveVideoUrl(movieUrl), new SplashVideoPrewarmer.Callback() {
+            @Override
+            public void onEngineReady(SplashVideoEngine prewarmed) {
+                uiHandler.removeCallbacks(videoPrepareTimeout);
+                if (state != STATE_PLAYING_VIDEO || videoSurface == null) {
+                    // Splash screen went away while the video was being prepared.
+                    if (prewarmed != null) {
+                        prewarmed.release();
+                    }
+                    return;
                 }
-                ll_skip.setOnClickListener(new View.OnClickListener(
+                if (prewarmed == null) {
+                    openVideoEngine(videoSurface.getContext(), movieUrl);
+                    return;
+                }
+                timings.mark("videoPrepared");
+                releaseVideoEngine();
+                videoEngine = prewarmed;
+                videoEngine.setListener(videoListener);
+                videoEngine.attach(videoSurface);
+                startVideoEngine();
+            }
+        });
+        if (!prewarming) {
+            uiHandler.removeCallbacks(videoPrepareTimeout);
+        }
+        return prewarming;
+    }
 
-                ) {
-                    @Override
-                    public void onClick(View v) {
-                        prefrence_config.edit().putBoolean(WELCOME_VIDEO_ISPLAY, true)
-                                .commit();
-                        if (isLoadFinished) {
-                            if (player.isPlaying()) {
-                                player.stop();
-                            }
-                            player.release();
-                            if (splashDialog != null && splashDialog.isShowing()) {
-                                splashDialog.dismiss();
-                                splashDialog = null;
-                                splashImageView = null;
-                                splashLoaded = true;
-                            }
+    private void openVideoEngine(final Context context, final String movie_url) {
+        final String url = resolveVideoUrl(movie_url);
+        if (videoCache == null || !SplashVideoCache.isRemote(url)) {
+            openVideoEngine(context, movie_url, url);
+            return;
+        }
+        // Looking the video up in the cache touches the disk and may start its proxy.
+        cordova.getThreadPool().execute(new Runnable() {
+            public void run() {
+                final String playbackUrl = videoCache.getPlaybackUrl(url);
+                uiHandler.post(new Runnable() {
+                    public void run() {
+                        if (state == STATE_PLAYING_VIDEO && videoSurface != null) {
+                            openVideoEngine(context, movie_url, playbackUrl);
                         }
                     }
                 });
+            }
+        });
+    }
 
-                firstMoviewShow = preferences.getBoolean("SplashScreenVideoShowOnlyOnce", false);
-                if(firstMoviewShow && isplay){
-                    isVideoDisplayed = true;
-                    ll_image.setVisibility(View.VISIBLE);
-                    surface.setVisibility(View.GONE);
-                    ll_skip.setVisibility(View.GONE);
-                }else {
-                    surfaceHolder = surface.getHolder();// SurfaceHolder是SurfaceView的控制接口
-                    surfaceHolder.addCallback(new SurfaceHolder.Callback() {
-                        @Override
-                        public void surfaceCreated(SurfaceHolder holder) {
-                            // 必须在surface创建后才能初始化MediaPlayer,否则不会显示图像
-                            String movie_url = preferences.getString("SplashScreenVideoPath", "");
-                            if(videoPath != null && videoPath.length() > 0)
-                            {
-                                movie_url = videoPath;
-                            }
-                            String url = webView.getUrl().replace("index.html", movie_url);
-                            Log.e("webView.getUrl0()=====", url);
-
-                            try {
-                                player = new MediaPlayer();
-                                if (url.startsWith("file:///android_asset"))
-                                {
-                                    Log.e("webView.getUrl1()=====", "www/" + movie_url);
-                                    AssetManager assetManager = context.getAssets();
-                                    AssetFileDescriptor fileDescriptor = assetManager.openFd("www/" + movie_url);
-                                    player.setDataSource(fileDescriptor.getFileDescriptor(),
-                                            fileDescriptor.getStartOffset(),
-                                            fileDescriptor.getLength());
-                                }
-                                else
-                                {
-                                    player.setDataSource(cordova.getActivity(), Uri.parse(url));
-                                }
-
-                                player.setAudioStreamType(AudioManager.STREAM_MUSIC);
-                                player.setDisplay(surfaceHolder);
-                                // 设置显示视频显示在SurfaceView上
-                                player.prepare();
-                                player.start();
-                                player.setOnCompletionListener(new MediaPlayer.OnCompletionListener() {
-
-                                    @Override
-                                    public void onCompletion(MediaPlayer mediaPlayer) {
-                                        Log.e("Completion============", "Completion");
-                                        isVideoDisplayed = true;
-                                        prefrence_config.edit().putBoolean(WELCOME_VIDEO_ISPLAY, true)
-                                                .commit();
-                                        if (mediaPlayer.isPlaying()) {
-                                            mediaPlayer.stop();
-                                        }
-                                        mediaPlayer.release();
-                                        if (splashDialog != null && splashDialog.isShowing()) {
-                                            splashDialog.dismiss();
-                                            splashDialog = null;
-                                            splashImageView = null;
-                                            splashLoaded = true;
-                                        }
-                                        videoPath = null;
-                                    }
-                                });
-
-                            } catch (IOException e) {
-                                e.printStackTrace();
-                                isVideoDisplayed = true;
-                            }
+    /**
+     * Opens and prepares the welcome video at url, which plays movie_url.
+     */
+    private void openVideoEngine(Context context, String movie_url, String url) {
+        Log.e("webView.getUrl0()=====", url);
 
+        releaseVideoEngine();
+        videoEngine = createVideoEngine();
+        videoEngine.setListener(videoListener);
+        videoEngine.attach(videoSurface);
+        try {
+            videoEngine.setDataSource(context, url, movie_url);
+            if (isVideoPrepareAsync()) {
+                uiHandler.postDelayed(videoPrepareTimeout, getVideoPrepareTimeout());
+                videoEngine.prepareAsync();
+            } else {
+                videoEngine.prepare();
+                timings.mark("videoPrepared");
+                startVideoEngine();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            fallbackToSplashImage();
+        }
+    }
 
-                        }
+    private final SplashVideoEngine.Listener videoListener = new SplashVideoEngine.Listener() {
+        @Override
+        public void onPrepared(SplashVideoEngine engine) {
+            timings.mark("videoPrepared");
+            uiHandler.removeCallbacks(videoPrepareTimeout);
+            if (engine == videoEngine) {
+                startVideoEngine();
+            }
+        }
 
-                        @Override
-                        public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {
+        @Override
+        public void onDisplayAvailable(SplashVideoEngine engine) {
+            timings.mark("videoSurfaceCreated");
+        }
 
-                        }
+        @Override
+        public void onFirstFrame(SplashVideoEngine engine) {
+            timings.mark("videoFirstFrame");
+        }
 
-                        @Override
-                        public void surfaceDestroyed(SurfaceHolder holder) {
+        @Override
+        public void onCompletion(SplashVideoEngine engine) {
+            Log.e("Completion============", "Completion");
+            splashState.recordVideoPlayed();
+            timings.mark("videoCompleted");
+            releaseVideoEngine();
+            dismissSplashDialog();
+            videoPath = null;
+        }
 
-                        }
+        @Override
+        public void onError(SplashVideoEngine engine, int what, int extra) {
+            uiHandler.removeCallbacks(videoPrepareTimeout);
+            Log.e(LOG_TAG, "Splash video error (" + what + ", " + extra + "), falling back to splash image");
+            if (engine == videoEngine) {
+                fallbackToSplashImage();
+            }
+        }
+    };
+
+    /**
+     * Starts the prepared video engine, from the position playback was paused at, unless the
+     * app is in the background.
+     */
+    private void startVideoEngine() {
+        if (videoPaused) {
+            return;
+        }
+        if (resumePosition > 0) {
+            videoEngine.seekTo(resumePosition);
+            resumePosition = 0;
+        }
+        videoEngine.start();
+    }
 
+    /**
+     * Pauses the welcome video when the app goes to the background and records where it was,
+     * also across launches in case the process is killed before it comes back.
+     */
+    private void pauseVideo() {
+        videoPaused = true;
+        uiHandler.removeCallbacks(videoPrepareTimeout);
+        if (videoEngine != null && videoEngine.isPrepared()) {
+            videoEngine.pause();
+            int position = videoEngine.getCurrentPosition();
+            if (position > 0) {
+                resumePosition = position;
+                splashState.recordVideoPosition(videoUrl, position);
+            }
+        }
+    }
+
+    private void resumeVideo() {
+        videoPaused = false;
+        if (videoEngine != null && videoEngine.isPrepared()) {
+            startVideoEngine();
+        } else {
+            // Still being prepared; it starts itself once it is ready.
+            uiHandler.postDelayed(videoPrepareTimeout, getVideoPrepareTimeout());
+        }
+    }
 
-                    }); // 因为这个类实现了SurfaceHolder.Callback接口，所以回调参数直接this
-                    surfaceHolder.setFixedSize(320, 220);// 显示的分辨率,不设置为视频默认
-                    surfaceHolder.setType(SurfaceHolder.SURFACE_TYPE_PUSH_BUFFERS);// Surface类型
+    private final Runnable videoPrepareTimeout = new Runnable() {
+        public void run() {
+            Log.w(LOG_TAG, "Timed out preparing splash video, falling back to splash image");
+            videoPrewarmer.release();
+            fallbackToSplashImage();
+        }
+    };
+
+    /**
+     * Shorter way to check value of "SplashScreenVideoPrepareAsync" preference.
+     */
+    private boolean isVideoPrepareAsync () {
+        return preferences.getBoolean("SplashScreenVideoPrepareAsync", true);
+    }
+
+    private int getVideoPrepareTimeout () {
+        return preferences.getInteger("SplashScreenVideoPrepareTimeout", DEFAULT_VIDEO_PREPARE_TIMEOUT);
+    }
+
+    /**
+     * Gives up on the welcome video and leaves the splash image visible. If the page has already
+     * finished loading, the splash screen is removed as it would have been without a video.
+     */
+    private void fallbackToSplashImage() {
+        releaseVideoEngine();
+        if (videoSurface != null) {
+            videoSurface.setVisibility(View.GONE);
+        }
+        if (ll_skip != null) {
+            ll_skip.setVisibility(View.GONE);
+        }
+        videoPath = null;
+        stopVideoProxy();
+        if (state == STATE_PLAYING_VIDEO) {
+            state = STATE_SHOWING_IMAGE;
+        }
+        if (isLoadFinished) {
+            removeSplashScreen(false);
+        }
+    }
+
+    /**
+     * Stops the video cache's loopback server once no player needs it; it is started again for
+     * the next remote video. Downloads in progress go on.
+     */
+    private void stopVideoProxy() {
+        if (videoCache != null) {
+            videoCache.close();
+        }
+    }
+
+    private void releaseVideoEngine() {
+        uiHandler.removeCallbacks(videoPrepareTimeout);
+        if (videoEngine != null) {
+            videoEngine.release();
+            videoEngine = null;
+        }
+    }
+
+    /**
+     * Decodes the splash drawable, or the image staged by prefetch(), in the background at the
+     * size of the display and shows it once it is ready. Until then the image view keeps what it
+     * shows, e.g. the bitmap for the previous orientation, or its background colour at first.
+     */
+    private void loadSplashImage(final int drawableId) {
+        final ImageView target = splashImageView;
+        final int targetOrientation = orientation;
+        final Point displaySize = getDisplaySize();
+        final int scale = deviceProfile.imageScaleDivisor();
+        final int targetWidth = displaySize.x / scale;
+        final int targetHeight = displaySize.y / scale;
+        // Image staged by a prefetch() in an earlier session, shown instead of the drawable.
+        final File stagedImage = splashState.getStagedImage();
+        timings.mark("decodeImageStart");
+        SplashBitmapLoader.Callback callback = new SplashBitmapLoader.Callback() {
+            @Override
+            public void onBitmapLoaded(Bitmap bitmap) {
+                if (splashImageView != target || orientation != targetOrientation) {
+                    // Dismissed or rotated while decoding.
+                    return;
                 }
-                splashImageView = new ImageView(context);
-                splashImageView.setImageResource(drawableId);
-                LayoutParams layoutParams = new LinearLayout.LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT);
-                splashImageView.setLayoutParams(layoutParams);
+                timings.mark("decodeImageEnd");
+                if (bitmap != null) {
+                    target.setImageBitmap(bitmap);
+                } else {
+                    target.setImageResource(drawableId);
+                }
+                if (stagedImage == null && scale == 1 && preferences.getBoolean("SplashPreloadOtherOrientation", false)) {
+                    preloadOtherOrientation(drawableId, targetHeight, targetWidth);
+                }
+            }
+        };
+        if (stagedImage != null) {
+            bitmapLoader.loadFile(stagedImage.getAbsolutePath(), orientation, targetWidth, targetHeight, callback);
+        } else {
+            bitmapLoader.load(cordova.getActivity().getResources(), drawableId, orientation, targetWidth, targetHeight, callback);
+        }
+    }
 
-                splashImageView.setMinimumHeight(display.getHeight());
-                splashImageView.setMinimumWidth(display.getWidth());
+    /**
+     * Size of the whole display in the current orientation. Unlike Display.getWidth() and
+     * getHeight(), it does not depend on where the system bars are, so in the other orientation
+     * it is the same size with width and height swapped.
+     */
+    @SuppressWarnings("deprecation")
+    private Point getDisplaySize() {
+        Display display = cordova.getActivity().getWindowManager().getDefaultDisplay();
+        Point size = new Point();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            display.getRealSize(size);
+        } else {
+            size.set(display.getWidth(), display.getHeight());
+        }
+        return size;
+    }
 
-                // TODO: Use the background color of the webView's parent instead of using the preference.
-                splashImageView.setBackgroundColor(preferences.getInteger("backgroundColor", Color.BLACK));
+    /**
+     * Decodes the drawable for the orientation the splash screen is not in, so that rotating
+     * the device only has to swap bitmaps. targetWidth and targetHeight are those of the other
+     * orientation, from {@link #getDisplaySize}.
+     */
+    private void preloadOtherOrientation(int drawableId, int targetWidth, int targetHeight) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            return;
+        }
+        Configuration config = new Configuration(cordova.getActivity().getResources().getConfiguration());
+        config.orientation = orientation == Configuration.ORIENTATION_LANDSCAPE
+                ? Configuration.ORIENTATION_PORTRAIT : Configuration.ORIENTATION_LANDSCAPE;
+        Resources resources = cordova.getActivity().createConfigurationContext(config).getResources();
+        bitmapLoader.preload(resources, drawableId, config.orientation, targetWidth, targetHeight);
+    }
 
-                if (isMaintainAspectRatio()) {
-                    // CENTER_CROP scale mode is equivalent to CSS "background-size:cover"
-                    splashImageView.setScaleType(ImageView.ScaleType.CENTER_CROP);
+    private void dismissSplashDialog() {
+        uiHandler.removeCallbacks(autoHide);
+        if (state != STATE_IDLE) {
+            state = STATE_HIDDEN;
+        }
+        spinnerStop();
+        if (splashRoot != null) {
+            // Forced while fading.
+            splashRoot.animate().cancel();
+        }
+        if (controller.splashDialog != null && controller.splashDialog.isShowing()) {
+            controller.splashDialog.dismiss();
+            controller.splashDialog = null;
+            splashRoot = null;
+            splashImageView = null;
+            splashSpinner = null;
+            splashLoaded = true;
+            bitmapLoader.clear();
+            stopVideoProxy();
+            timings.mark("splashDismissed");
+            if (frameMonitor != null) {
+                // Keep watching while the WebView takes over.
+                uiHandler.removeCallbacks(stopFrameMonitor);
+                uiHandler.postDelayed(stopFrameMonitor,
+                        preferences.getInteger("SplashScreenFrameMonitorTail", DEFAULT_FRAME_MONITOR_TAIL));
+            }
+        }
+    }
+
+    private final Runnable stopFrameMonitor = new Runnable() {
+        public void run() {
+            frameMonitor.stop();
+        }
+    };
+
+    /**
+     * Looks up the ids of the splash layout and its views in the background, so showing the
+     * splash screen does not have to.
+     */
+    private void preloadResourceIds() {
+        final Context context = cordova.getActivity();
+        cordova.getThreadPool().execute(new Runnable() {
+            public void run() {
+                resourceIds.preload(context, "layout", "splash_welcome_video");
+                resourceIds.preload(context, "id", "imageview", "vs_video", "sv_video", "ll_skip", "pb_spinner");
+            }
+        });
+    }
+
+    private int getId(String idName)
+    {
+        return resourceIds.get(cordova.getActivity(), idName, "id");
+    }
+    private int getLayout(String layoutName)
+    {
+        return resourceIds.get(cordova.getActivity(), layoutName, "layout");
+    }
+
+
+    /**
+     * Whether showSplashScreen(hideAfterDelay) shows anything with the current preferences.
+     */
+    private boolean isSplashScreenEnabled(boolean hideAfterDelay) {
+        return preferences.getInteger("SplashDrawableId", 0) != 0
+                && !(preferences.getInteger("SplashScreenDelay", DEFAULT_SPLASHSCREEN_DURATION) <= 0 && hideAfterDelay);
+    }
+
+    /**
+     * Whether this plugin, or another WebView of this Activity, is showing the splash screen.
+     * UI thread only.
+     */
+    private boolean isSplashScreenShowing() {
+        return (state != STATE_IDLE && state != STATE_HIDDEN)
+                || (controller.splashDialog != null && controller.splashDialog.isShowing());
+    }
+
+    /**
+     * Shows the splash screen over the full Activity
+     */
+    @SuppressWarnings("deprecation")
+    private void showSplashScreen(final boolean hideAfterDelay) {
+        timings.mark("showSplashScreen");
+        final int splashscreenTime = preferences.getInteger("SplashScreenDelay", DEFAULT_SPLASHSCREEN_DURATION);
+        final int drawableId = preferences.getInteger("SplashDrawableId", 0);
+
+        final int fadeSplashScreenDuration = getFadeDuration();
+        final int effectiveSplashDuration = Math.max(0, splashscreenTime - fadeSplashScreenDuration);
+
+        controller.lastHideAfterDelay = hideAfterDelay;
+
+        if (!isSplashScreenEnabled(hideAfterDelay)) {
+            // Don't keep a decoder around for a video that won't be shown.
+            videoPrewarmer.releaseUnclaimed();
+            return;
+        }
+
+        runOnUiThread(new Runnable() {
+            public void run() {
+                if (destroyed) {
+                    // Posted before the Activity was destroyed, e.g. the launch splash screen.
+                    videoPrewarmer.releaseUnclaimed();
+                    layoutPreloader.clear();
+                    return;
                 }
-                else {
-                    // FIT_XY scales image non-uniformly to fit into image view.
-                    splashImageView.setScaleType(ImageView.ScaleType.FIT_XY);
+                // If the splash dialog is showing don't try to show it again
+                if (isSplashScreenShowing()) {
+                    videoPrewarmer.releaseUnclaimed();
+                    layoutPreloader.clear();
+                    return;
                 }
+                state = STATE_SHOWING_IMAGE;
+                if (frameMonitor != null) {
+                    uiHandler.removeCallbacks(stopFrameMonitor);
+                    frameMonitor.start();
+                }
+                final Context context = webView.getContext();
+
+                // Usually inflated in the background already.
+                timings.begin("inflateLayout");
+                SplashLayoutPreloader.Layout layout = layoutPreloader.take();
+                timings.end("inflateLayout");
+                View video_view = layout.root;
+                splashSpinner = layout.spinner;
+                splashImageView = layout.image;
+
+                final boolean playVideo = !isVideoSkipped();
+                final SurfaceView surface;
+                if (playVideo) {
+                    // The video surface and skip button live in a stub, so that the image-only
+                    // splash screen neither inflates them nor allocates a window surface.
+                    timings.begin("inflateVideo");
+                    View video_overlay = ((ViewStub) video_view.findViewById(getId("vs_video"))).inflate();
+                    surface = (SurfaceView) video_overlay.findViewById(getId("sv_video"));
+                    ll_skip = (LinearLayout) video_overlay.findViewById(getId("ll_skip"));
+                    timings.end("inflateVideo");
+                    if(splashLoaded)
+                    {
+                        ll_skip.setVisibility(View.VISIBLE);
+                    }
+                    ll_skip.setOnClickListener(new View.OnClickListener(
 
-                ll_image.addView(splashImageView);
+                    ) {
+                        @Override
+                        public void onClick(View v) {
+                            splashState.recordVideoPlayed();
+                            if (isLoadFinished) {
+                                releaseVideoEngine();
+                                dismissSplashDialog();
+                            }
+                        }
+                    });
+                } else {
+                    surface = null;
+                    ll_skip = null;
+                }
+                loadSplashImage(drawableId);
                 // Create and show the dialog
-                splashDialog = new Dialog(context, android.R.style.Theme_Translucent_NoTitleBar);
+                controller.splashDialog = new Dialog(context, android.R.style.Theme_Translucent_NoTitleBar);
                 // check to see if the splash screen should be full screen
                 if ((cordova.getActivity().getWindow().getAttributes().flags & WindowManager.LayoutParams.FLAG_FULLSCREEN)
                         == WindowManager.LayoutParams.FLAG_FULLSCREEN) {
-                    splashDialog.getWindow().setFlags(WindowManager.LayoutParams.FLAG_FULLSCREEN,
+                    controller.splashDialog.getWindow().setFlags(WindowManager.LayoutParams.FLAG_FULLSCREEN,
                             WindowManager.LayoutParams.FLAG_FULLSCREEN);
                 }
 //                splashDialog.setContentView(splashImageView);
-                splashDialog.setContentView(video_view);
+                controller.splashDialog.setContentView(video_view);
+                splashRoot = video_view;
 
-                splashDialog.setCancelable(false);
-                splashDialog.show();
+                controller.splashDialog.setCancelable(false);
+                timings.begin("dialogShow");
+                controller.splashDialog.show();
+                timings.end("dialogShow");
 
                 if (preferences.getBoolean("ShowSplashScreenSpinner", true) && !splashLoaded) {
                     spinnerStart();
@@ -499,34 +1242,111 @@ public class SplashScreen extends CordovaPlugin {
 
                 // Set Runnable to remove splash screen just in case
                 if (hideAfterDelay) {
-                    final Handler handler = new Handler();
-                    handler.postDelayed(new Runnable() {
-                        public void run() {
-                            if (lastHideAfterDelay) {
-                                removeSplashScreen(false);
-                            }
+                    autoHideStart = SystemClock.uptimeMillis();
+                    if (isAdaptiveDelay()) {
+                        // Hide once the app is ready, or at the latest after the maximum delay.
+                        int maxDelay = preferences.getInteger("SplashScreenMaxDelay", DEFAULT_ADAPTIVE_MAX_DELAY);
+                        uiHandler.postDelayed(autoHide, Math.max(0, maxDelay - fadeSplashScreenDuration));
+                        if (appReady) {
+                            scheduleAdaptiveHide();
                         }
-                    }, effectiveSplashDuration);
+                    } else {
+                        uiHandler.postDelayed(autoHide, effectiveSplashDuration);
+                    }
+                }
+
+                if (playVideo) {
+                    state = STATE_PLAYING_VIDEO;
+                    startVideo(context, surface);
                 }
             }
         });
     }
 
+    /**
+     * Inflates the splash layout and sets up the ImageView showing the drawable, without
+     * attaching anything to a window, so it may run on a background thread.
+     */
+    @SuppressWarnings("deprecation")
+    private SplashLayoutPreloader.Layout buildSplashLayout() {
+        // Get reference to display
+        Display display = cordova.getActivity().getWindowManager().getDefaultDisplay();
+        Context context = webView.getContext();
+
+        View video_view = LayoutInflater.from(context).inflate(getLayout("splash_welcome_video"),null);
+        LinearLayout ll_image =  (LinearLayout) video_view.findViewById(getId("imageview"));
+        ProgressBar spinner = (ProgressBar) video_view.findViewById(getId("pb_spinner"));
+
+        // Use an ImageView to render the image because of its flexible scaling options.
+        ImageView imageView = new ImageView(context);
+        LayoutParams layoutParams = new LinearLayout.LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT);
+        imageView.setLayoutParams(layoutParams);
+
+        imageView.setMinimumHeight(display.getHeight());
+        imageView.setMinimumWidth(display.getWidth());
+
+        // TODO: Use the background color of the webView's parent instead of using the preference.
+        imageView.setBackgroundColor(preferences.getInteger("backgroundColor", Color.BLACK));
+
+        if (isMaintainAspectRatio()) {
+            // CENTER_CROP scale mode is equivalent to CSS "background-size:cover"
+            imageView.setScaleType(ImageView.ScaleType.CENTER_CROP);
+        }
+        else {
+            // FIT_XY scales image non-uniformly to fit into image view.
+            imageView.setScaleType(ImageView.ScaleType.FIT_XY);
+        }
+
+        ll_image.addView(imageView);
+        return new SplashLayoutPreloader.Layout(video_view, imageView, spinner);
+    }
+
+    private final Runnable autoHide = new Runnable() {
+        public void run() {
+            if (controller.lastHideAfterDelay) {
+                timings.mark(appReady ? "autoHideReady" : "autoHideTimeout");
+                removeSplashScreen(false);
+            }
+        }
+    };
+
+    /**
+     * Shorter way to check whether "SplashScreenSpinnerMode" asks for the spinner inside the
+     * splash layout rather than in a dialog of its own.
+     */
+    private boolean isInlineSpinner () {
+        if (deviceProfile.imageScaleDivisor() > 1) {
+            // Cheapest mode, don't open a second window for the spinner.
+            return true;
+        }
+        return "inline".equalsIgnoreCase(preferences.getString("SplashScreenSpinnerMode", "dialog"));
+    }
+
     // Show only spinner in the center of the screen
     private void spinnerStart() {
-        cordova.getActivity().runOnUiThread(new Runnable() {
+        if (isInlineSpinner()) {
+            runOnUiThread(new Runnable() {
+                public void run() {
+                    if (splashSpinner != null) {
+                        splashSpinner.setVisibility(View.VISIBLE);
+                    }
+                }
+            });
+            return;
+        }
+        runOnUiThread(new Runnable() {
             public void run() {
                 spinnerStop();
 
-                spinnerDialog = new ProgressDialog(webView.getContext());
-                spinnerDialog.setOnCancelListener(new DialogInterface.OnCancelListener() {
+                controller.spinnerDialog = new ProgressDialog(webView.getContext());
+                controller.spinnerDialog.setOnCancelListener(new DialogInterface.OnCancelListener() {
                     public void onCancel(DialogInterface dialog) {
-                        spinnerDialog = null;
+                        controller.spinnerDialog = null;
                     }
                 });
 
-                spinnerDialog.setCancelable(false);
-                spinnerDialog.setIndeterminate(true);
+                controller.spinnerDialog.setCancelable(false);
+                controller.spinnerDialog.setIndeterminate(true);
 
                 RelativeLayout centeredLayout = new RelativeLayout(cordova.getActivity());
                 centeredLayout.setGravity(Gravity.CENTER);
@@ -539,21 +1359,24 @@ public class SplashScreen extends CordovaPlugin {
 
                 centeredLayout.addView(progressBar);
 
-                spinnerDialog.getWindow().clearFlags(WindowManager.LayoutParams.FLAG_DIM_BEHIND);
-                spinnerDialog.getWindow().setBackgroundDrawable(new ColorDrawable(Color.TRANSPARENT));
+                controller.spinnerDialog.getWindow().clearFlags(WindowManager.LayoutParams.FLAG_DIM_BEHIND);
+                controller.spinnerDialog.getWindow().setBackgroundDrawable(new ColorDrawable(Color.TRANSPARENT));
 
-                spinnerDialog.show();
-                spinnerDialog.setContentView(centeredLayout);
+                controller.spinnerDialog.show();
+                controller.spinnerDialog.setContentView(centeredLayout);
             }
         });
     }
 
     private void spinnerStop() {
-        cordova.getActivity().runOnUiThread(new Runnable() {
+        runOnUiThread(new Runnable() {
             public void run() {
-                if (spinnerDialog != null && spinnerDialog.isShowing()) {
-                    spinnerDialog.dismiss();
-                    spinnerDialog = null;
+                if (splashSpinner != null) {
+                    splashSpinner.setVisibility(View.GONE);
+                }
+                if (controller.spinnerDialog != null && controller.spinnerDialog.isShowing()) {
+                    controller.spinnerDialog.dismiss();
+                    controller.spinnerDialog = null;
                 }
             }
         });
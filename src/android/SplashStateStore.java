@@ -0,0 +1,206 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+         http://www.apache.org/licenses/LICENSE-2.0
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+
+package org.apache.cordova.splashscreen;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.pm.PackageManager;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Splash screen state kept across launches, in the "WelcomeVedio" SharedPreferences file.
+ *
+ * The file is loaded on a background thread as soon as the store is created. Readers block until
+ * the load has finished, so the UI thread should only read once {@link #whenLoaded} has called
+ * back. Every change is a single batched edit written with apply(), so the UI thread never waits
+ * for the disk.
+ */
+class SplashStateStore {
+    static final String PREFERENCES_NAME = "WelcomeVedio";
+    static final String VIDEO_PLAYED = "WelcomeVedio_isplay";
+    private static final String PLAY_COUNT = "WelcomeVedio_playCount";
+    private static final String LAST_VERSION = "WelcomeVedio_lastVersion";
+    private static final String LAST_POSITION = "WelcomeVedio_lastPosition";
+    private static final String LAST_POSITION_URL = "WelcomeVedio_lastPositionUrl";
+    private static final String NEXT_VIDEO_PATH = "WelcomeVedio_nextVideoPath";
+    private static final String NEXT_IMAGE = "WelcomeVedio_nextImage";
+
+    private final CountDownLatch loaded = new CountDownLatch(1);
+    private final List<Runnable> loadedActions = new ArrayList<Runnable>();
+    private SharedPreferences prefs;
+    private boolean playedAtLaunch;
+    private String appVersion;
+
+    SplashStateStore(final Context context, ExecutorService executor) {
+        executor.execute(new Runnable() {
+            public void run() {
+                try {
+                    prefs = context.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+                    playedAtLaunch = prefs.getBoolean(VIDEO_PLAYED, false);
+                    try {
+                        appVersion = context.getPackageManager().getPackageInfo(context.getPackageName(), 0).versionName;
+                    } catch (PackageManager.NameNotFoundException e) {
+                        appVersion = null;
+                    }
+                } finally {
+                    loaded.countDown();
+                }
+                runLoadedActions();
+            }
+        });
+    }
+
+    /**
+     * Runs the action once the state is loaded: on the thread that loaded it, or right away on
+     * the calling thread if it already is.
+     */
+    void whenLoaded(Runnable action) {
+        synchronized (loadedActions) {
+            if (loaded.getCount() > 0) {
+                loadedActions.add(action);
+                return;
+            }
+        }
+        action.run();
+    }
+
+    private void runLoadedActions() {
+        List<Runnable> actions;
+        synchronized (loadedActions) {
+            actions = new ArrayList<Runnable>(loadedActions);
+            loadedActions.clear();
+        }
+        for (Runnable action : actions) {
+            action.run();
+        }
+    }
+
+    private SharedPreferences prefs() {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                loaded.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return prefs;
+    }
+
+    /**
+     * Whether the welcome video had been played, or skipped, before this launch. Playing it
+     * during this launch does not change the answer.
+     */
+    boolean wasVideoPlayedAtLaunch() {
+        prefs();
+        return playedAtLaunch;
+    }
+
+    int getPlayCount() {
+        return prefs().getInt(PLAY_COUNT, 0);
+    }
+
+    /**
+     * Version name of the app that last played the welcome video, or null.
+     */
+    String getLastVersion() {
+        return prefs().getString(LAST_VERSION, null);
+    }
+
+    /**
+     * Position, in milliseconds, the video at url was at when the app last went to the
+     * background during it; 0 once it has been played to the end or skipped, or if the position
+     * was recorded for another video.
+     */
+    int getLastPosition(String url) {
+        SharedPreferences prefs = prefs();
+        if (!url.equals(prefs.getString(LAST_POSITION_URL, null))) {
+            return 0;
+        }
+        return prefs.getInt(LAST_POSITION, 0);
+    }
+
+    /**
+     * Records that the welcome video was played to the end or skipped.
+     */
+    void recordVideoPlayed() {
+        SharedPreferences prefs = prefs();
+        prefs.edit()
+                .putBoolean(VIDEO_PLAYED, true)
+                .putInt(PLAY_COUNT, prefs.getInt(PLAY_COUNT, 0) + 1)
+                .putString(LAST_VERSION, appVersion)
+                .remove(LAST_POSITION)
+                .remove(LAST_POSITION_URL)
+                .apply();
+    }
+
+    /**
+     * Records the position of the video at url, which is the URL it was resolved to, not the
+     * one it is played from.
+     */
+    void recordVideoPosition(String url, int position) {
+        prefs().edit().putInt(LAST_POSITION, position).putString(LAST_POSITION_URL, url).apply();
+    }
+
+    /**
+     * Video path, relative to the www folder, staged for the next launch by prefetch(), or
+     * null.
+     */
+    String getStagedVideoPath() {
+        return prefs().getString(NEXT_VIDEO_PATH, null);
+    }
+
+    /**
+     * Image staged for the next launch by prefetch(), or null if there is none.
+     */
+    File getStagedImage() {
+        String path = prefs().getString(NEXT_IMAGE, null);
+        if (path == null) {
+            return null;
+        }
+        File file = new File(path);
+        return file.isFile() ? file : null;
+    }
+
+    /**
+     * Records what prefetch() staged for the next launch; either may be null to leave it as it
+     * is. A new video is shown again even if the previous one has been played.
+     */
+    void recordStaged(String videoPath, boolean newVideo, File image) {
+        SharedPreferences.Editor editor = prefs().edit();
+        if (videoPath != null) {
+            editor.putString(NEXT_VIDEO_PATH, videoPath);
+            if (newVideo) {
+                editor.putBoolean(VIDEO_PLAYED, false).remove(LAST_POSITION).remove(LAST_POSITION_URL);
+            }
+        }
+        if (image != null) {
+            editor.putString(NEXT_IMAGE, image.getAbsolutePath());
+        }
+        editor.apply();
+    }
+}
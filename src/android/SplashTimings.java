@@ -0,0 +1,110 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+         http://www.apache.org/licenses/LICENSE-2.0
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+
+package org.apache.cordova.splashscreen;
+
+import android.os.Build;
+import android.os.Process;
+import android.os.SystemClock;
+import android.os.Trace;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records monotonic timestamps for the phases of the splash screen lifecycle, relative to the
+ * moment the plugin was initialized. Synchronous phases can also be emitted as
+ * {@link android.os.Trace} sections so they show up in systrace / Perfetto captures.
+ */
+class SplashTimings {
+    private static final String TRACE_PREFIX = "SplashScreen.";
+
+    private final long originNanos = now();
+    private final boolean trace;
+    private final Map<String, Long> marks = new LinkedHashMap<String, Long>();
+
+    SplashTimings(boolean trace) {
+        this.trace = trace && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            long processStart = getProcessStart();
+            if (processStart > 0) {
+                marks.put("processStart", processStart * 1000000L);
+            }
+        }
+    }
+
+    /**
+     * Process.getStartElapsedRealtime(), looked up reflectively so the plugin still compiles
+     * against API 23. Returns 0 if it cannot be called.
+     */
+    private static long getProcessStart() {
+        try {
+            return (Long) Process.class.getMethod("getStartElapsedRealtime").invoke(null);
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    private static long now() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            return SystemClock.elapsedRealtimeNanos();
+        }
+        return SystemClock.elapsedRealtime() * 1000000L;
+    }
+
+    /**
+     * Records that the given phase happened now. A phase that happens again, e.g. on a later
+     * show/hide cycle, overwrites its previous timestamp.
+     */
+    synchronized void mark(String phase) {
+        marks.remove(phase);
+        marks.put(phase, now());
+    }
+
+    /**
+     * Marks phase + "Start" and opens a trace section. Must be paired with {@link #end} on the
+     * same thread.
+     */
+    void begin(String phase) {
+        mark(phase + "Start");
+        if (trace) {
+            Trace.beginSection(TRACE_PREFIX + phase);
+        }
+    }
+
+    void end(String phase) {
+        if (trace) {
+            Trace.endSection();
+        }
+        mark(phase + "End");
+    }
+
+    /**
+     * Milliseconds since plugin initialization for every recorded phase, in the order they
+     * were last recorded.
+     */
+    synchronized JSONObject toJSON() throws JSONException {
+        JSONObject json = new JSONObject();
+        for (Map.Entry<String, Long> entry : marks.entrySet()) {
+            json.put(entry.getKey(), (entry.getValue() - originNanos) / 1000000.0);
+        }
+        return json;
+    }
+}
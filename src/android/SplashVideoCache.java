@@ -0,0 +1,683 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+         http://www.apache.org/licenses/LICENSE-2.0
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+
+package org.apache.cordova.splashscreen;
+
+import android.net.Uri;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps remote welcome videos in a size-capped on-disk cache so that only the first launch
+ * downloads them.
+ *
+ * While a video is being downloaded the player reads it through a small HTTP server on the
+ * loopback interface, which serves the bytes already written to disk and waits for the rest, so
+ * playback starts on the first bytes. Once a video is cached the player opens the file directly
+ * and the copy is revalidated in the background with its ETag / Last-Modified validators, for
+ * the next launch. Least recently played videos are evicted first.
+ */
+class SplashVideoCache {
+    private static final String LOG_TAG = "SplashVideoCache";
+    private static final int CONNECT_TIMEOUT = 10000;
+    private static final int READ_TIMEOUT = 15000;
+    private static final int BUFFER_SIZE = 16 * 1024;
+    // Requests for ranges further ahead of the download than this go straight to the server.
+    private static final long MAX_RANGE_WAIT_BYTES = 1024 * 1024;
+    private static final String PART_SUFFIX = ".part";
+    private static final String META_SUFFIX = ".meta";
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{32}");
+
+    private final File dir;
+    private final long maxBytes;
+    private final ExecutorService executor;
+    private final Map<String, Download> downloads = new HashMap<String, Download>();
+    // Guards the server apart from the cache, which is held during disk I/O, so closing it never
+    // waits for the disk.
+    private final Object serverLock = new Object();
+    // Keys handed out in loopback URLs; the server serves nothing else.
+    private final Set<String> servedKeys = new HashSet<String>();
+    private ServerSocket serverSocket;
+
+    SplashVideoCache(File dir, long maxBytes, ExecutorService executor) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        this.executor = executor;
+    }
+
+    static boolean isRemote(String url) {
+        return url.startsWith("http://") || url.startsWith("https://");
+    }
+
+    /**
+     * Returns the URL the player should open for the given remote video: the cached file when
+     * there is one, otherwise a loopback URL that plays the video while it is downloaded. Falls
+     * back to the remote URL itself if the cache cannot be used. Reads the disk and may start the
+     * server, so it should not be called on the UI thread.
+     */
+    synchronized String getPlaybackUrl(String url) {
+        String key = keyFor(url);
+        File file = new File(dir, key);
+        Properties meta = readMeta(key);
+        if (file.isFile() && meta != null && url.equals(meta.getProperty("url"))) {
+            file.setLastModified(System.currentTimeMillis());
+            if (!downloads.containsKey(key)) {
+                startDownload(url, key, meta);
+            }
+            return Uri.fromFile(file).toString();
+        }
+        String proxyUrl;
+        try {
+            proxyUrl = startServing(key);
+        } catch (IOException e) {
+            Log.w(LOG_TAG, "Could not start the video cache proxy, streaming " + url, e);
+            return url;
+        }
+        if (!downloads.containsKey(key)) {
+            startDownload(url, key, null);
+        }
+        return proxyUrl;
+    }
+
+    /**
+     * Downloads the video into the cache on the calling thread, or waits for the download
+     * already in progress, unless the video is cached already.
+     *
+     * @return whether the video is cached afterwards.
+     */
+    boolean prefetch(String url) {
+        String key = keyFor(url);
+        File file = new File(dir, key);
+        Download download;
+        boolean run = false;
+        synchronized (this) {
+            Properties meta = readMeta(key);
+            if (file.isFile() && meta != null && url.equals(meta.getProperty("url"))) {
+                return true;
+            }
+            download = downloads.get(key);
+            if (download == null) {
+                if (!dir.isDirectory() && !dir.mkdirs()) {
+                    return false;
+                }
+                download = new Download(url, key, null);
+                downloads.put(key, download);
+                run = true;
+            }
+        }
+        if (run) {
+            download.run();
+        } else {
+            download.awaitFinished();
+        }
+        return file.isFile();
+    }
+
+    /**
+     * Stops serving videos; the next {@link #getPlaybackUrl} starts the server again. Downloads
+     * in progress are completed for the next launch. Does not touch the disk, so it may be
+     * called on the UI thread.
+     */
+    void close() {
+        synchronized (serverLock) {
+            servedKeys.clear();
+            if (serverSocket != null) {
+                try {
+                    serverSocket.close();
+                } catch (IOException e) {
+                    // Closing anyway.
+                }
+                serverSocket = null;
+            }
+        }
+    }
+
+    private void startDownload(String url, String key, Properties validators) {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            Log.w(LOG_TAG, "Could not create video cache directory " + dir);
+            return;
+        }
+        Download download = new Download(url, key, validators);
+        downloads.put(key, download);
+        executor.execute(download);
+    }
+
+    private synchronized void finishDownload(String key) {
+        downloads.remove(key);
+    }
+
+    /**
+     * Whether any download or revalidation is in progress.
+     */
+    synchronized boolean hasDownloads() {
+        return !downloads.isEmpty();
+    }
+
+    private synchronized Download getDownload(String key) {
+        return downloads.get(key);
+    }
+
+    /**
+     * Whether the server may serve the given key, i.e. it is one that was handed out. Anything
+     * else, e.g. a path reaching out of the cache directory, is refused.
+     */
+    private boolean isServed(String key) {
+        synchronized (serverLock) {
+            return KEY_PATTERN.matcher(key).matches() && servedKeys.contains(key);
+        }
+    }
+
+    /**
+     * Starts the server unless it is running, and returns the loopback URL of the given key.
+     */
+    private String startServing(String key) throws IOException {
+        synchronized (serverLock) {
+            if (serverSocket == null) {
+                serverSocket = startServer();
+            }
+            servedKeys.add(key);
+            return "http://127.0.0.1:" + serverSocket.getLocalPort() + "/" + key;
+        }
+    }
+
+    private ServerSocket startServer() throws IOException {
+        final ServerSocket server = new ServerSocket(0, 8, InetAddress.getByName("127.0.0.1"));
+        executor.execute(new Runnable() {
+            public void run() {
+                while (!server.isClosed()) {
+                    try {
+                        final Socket socket = server.accept();
+                        executor.execute(new Runnable() {
+                            public void run() {
+                                serve(socket);
+                            }
+                        });
+                    } catch (IOException e) {
+                        // Server socket closed.
+                    }
+                }
+            }
+        });
+        return server;
+    }
+
+    private void serve(Socket socket) {
+        try {
+            InputStream in = socket.getInputStream();
+            String requestLine = readLine(in);
+            long rangeStart = 0;
+            boolean hasRange = false;
+            String line;
+            while ((line = readLine(in)) != null && line.length() > 0) {
+                String lower = line.toLowerCase();
+                if (lower.startsWith("range:") && lower.contains("bytes=")) {
+                    String spec = lower.substring(lower.indexOf("bytes=") + 6).trim();
+                    int dash = spec.indexOf('-');
+                    if (dash > 0) {
+                        rangeStart = Long.parseLong(spec.substring(0, dash).trim());
+                        hasRange = true;
+                    }
+                }
+            }
+            String[] parts = requestLine == null ? new String[0] : requestLine.split(" ");
+            String key = parts.length > 1 ? parts[1].substring(1) : "";
+            OutputStream out = socket.getOutputStream();
+            if (!isServed(key)) {
+                writeStatus(out, "404 Not Found");
+                return;
+            }
+
+            Download download = getDownload(key);
+            if (download == null) {
+                File file = new File(dir, key);
+                if (!file.isFile()) {
+                    writeStatus(out, "404 Not Found");
+                    return;
+                }
+                Properties meta = readMeta(key);
+                serveFile(out, file, meta == null ? null : meta.getProperty("contentType"), rangeStart, hasRange);
+                return;
+            }
+            if (!download.awaitHeaders()) {
+                writeStatus(out, "502 Bad Gateway");
+                return;
+            }
+            if (hasRange && download.length > 0 && rangeStart > download.written() + MAX_RANGE_WAIT_BYTES) {
+                // Usually the index at the end of the file; don't wait for the download to get there.
+                proxyRange(out, download.url, rangeStart);
+                return;
+            }
+            serveDownload(out, download, rangeStart, hasRange);
+        } catch (IOException e) {
+            // The player closes connections it no longer needs, e.g. after seeking.
+        } catch (RuntimeException e) {
+            Log.w(LOG_TAG, "Could not serve cached video", e);
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Closing anyway.
+            }
+        }
+    }
+
+    private void serveFile(OutputStream out, File file, String contentType, long start, boolean hasRange) throws IOException {
+        long length = file.length();
+        if (start >= length) {
+            writeStatus(out, "416 Range Not Satisfiable");
+            return;
+        }
+        writeHeaders(out, contentType, start, length, hasRange);
+        RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            input.seek(start);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            out.flush();
+        } finally {
+            input.close();
+        }
+    }
+
+    private void serveDownload(OutputStream out, Download download, long start, boolean hasRange) throws IOException {
+        long length = download.length;
+        if (length < 0) {
+            // Unknown length: ranges cannot be answered until the download is complete.
+            start = 0;
+            hasRange = false;
+        } else if (start >= length) {
+            writeStatus(out, "416 Range Not Satisfiable");
+            return;
+        }
+        writeHeaders(out, download.contentType, start, length, hasRange);
+        RandomAccessFile input = download.openForReading();
+        try {
+            input.seek(start);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long position = start;
+            while (length < 0 || position < length) {
+                long available = download.awaitBytes(position);
+                if (available <= position) {
+                    // Finished (unknown length) or failed.
+                    break;
+                }
+                int read = input.read(buffer, 0, (int) Math.min(buffer.length, available - position));
+                if (read == -1) {
+                    break;
+                }
+                out.write(buffer, 0, read);
+                position += read;
+            }
+            out.flush();
+        } finally {
+            input.close();
+        }
+    }
+
+    private void proxyRange(OutputStream out, String url, long start) throws IOException {
+        HttpURLConnection connection = open(url);
+        try {
+            connection.setRequestProperty("Range", "bytes=" + start + "-");
+            int code = connection.getResponseCode();
+            if (code != HttpURLConnection.HTTP_PARTIAL) {
+                writeStatus(out, "502 Bad Gateway");
+                return;
+            }
+            StringBuilder headers = new StringBuilder("HTTP/1.1 206 Partial Content\r\n");
+            appendHeader(headers, "Content-Type", connection.getContentType());
+            appendHeader(headers, "Content-Length", connection.getHeaderField("Content-Length"));
+            appendHeader(headers, "Content-Range", connection.getHeaderField("Content-Range"));
+            headers.append("Accept-Ranges: bytes\r\nConnection: close\r\n\r\n");
+            out.write(headers.toString().getBytes("US-ASCII"));
+            copy(connection.getInputStream(), out);
+            out.flush();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static void writeHeaders(OutputStream out, String contentType, long start, long length, boolean hasRange) throws IOException {
+        StringBuilder headers = new StringBuilder("HTTP/1.1 ").append(hasRange ? "206 Partial Content" : "200 OK").append("\r\n");
+        appendHeader(headers, "Content-Type", contentType);
+        if (length >= 0) {
+            headers.append("Accept-Ranges: bytes\r\n");
+            headers.append("Content-Length: ").append(length - start).append("\r\n");
+            if (hasRange) {
+                headers.append("Content-Range: bytes ").append(start).append('-').append(length - 1).append('/').append(length).append("\r\n");
+            }
+        }
+        headers.append("Connection: close\r\n\r\n");
+        out.write(headers.toString().getBytes("US-ASCII"));
+    }
+
+    private static void writeStatus(OutputStream out, String status) throws IOException {
+        out.write(("HTTP/1.1 " + status + "\r\nContent-Length: 0\r\nConnection: close\r\n\r\n").getBytes("US-ASCII"));
+        out.flush();
+    }
+
+    private static void appendHeader(StringBuilder headers, String name, String value) {
+        if (value != null) {
+            headers.append(name).append(": ").append(value).append("\r\n");
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) != -1 && c != '\n') {
+            if (c != '\r') {
+                line.append((char) c);
+            }
+        }
+        return c == -1 && line.length() == 0 ? null : line.toString();
+    }
+
+    private static HttpURLConnection open(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(CONNECT_TIMEOUT);
+        connection.setReadTimeout(READ_TIMEOUT);
+        return connection;
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+    }
+
+    private Properties readMeta(String key) {
+        File file = new File(dir, key + META_SUFFIX);
+        if (!file.isFile()) {
+            return null;
+        }
+        Properties meta = new Properties();
+        try {
+            FileInputStream in = new FileInputStream(file);
+            try {
+                meta.load(in);
+            } finally {
+                in.close();
+            }
+            return meta;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void writeMeta(String key, Properties meta) throws IOException {
+        FileOutputStream out = new FileOutputStream(new File(dir, key + META_SUFFIX));
+        try {
+            meta.store(out, null);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Deletes the least recently played videos until the cache fits in maxBytes. The video just
+     * downloaded is always kept.
+     */
+    private synchronized void trim(String keep) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        List<File> videos = new ArrayList<File>();
+        long total = 0;
+        for (File file : files) {
+            String name = file.getName();
+            if (name.endsWith(META_SUFFIX) || name.endsWith(PART_SUFFIX)) {
+                continue;
+            }
+            videos.add(file);
+            total += file.length();
+        }
+        File[] sorted = videos.toArray(new File[videos.size()]);
+        Arrays.sort(sorted, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                long diff = a.lastModified() - b.lastModified();
+                return diff < 0 ? -1 : (diff > 0 ? 1 : 0);
+            }
+        });
+        for (File file : sorted) {
+            if (total <= maxBytes) {
+                break;
+            }
+            if (file.getName().equals(keep) || downloads.containsKey(file.getName())) {
+                continue;
+            }
+            total -= file.length();
+            file.delete();
+            new File(dir, file.getName() + META_SUFFIX).delete();
+        }
+    }
+
+    static String keyFor(String url) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            byte[] hash = digest.digest(url.getBytes("UTF-8"));
+            StringBuilder key = new StringBuilder();
+            for (byte b : hash) {
+                key.append(String.format("%02x", b & 0xff));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(url.hashCode());
+        } catch (IOException e) {
+            return Integer.toHexString(url.hashCode());
+        }
+    }
+
+    /**
+     * Downloads one video into a .part file, which replaces the cached copy once it is complete.
+     * When validators of a cached copy are given, the download is conditional and a 304
+     * response just keeps the cached copy.
+     */
+    private class Download implements Runnable {
+        final String url;
+        final String key;
+        private final Properties validators;
+        private final File partFile;
+        private final File file;
+
+        private boolean headersReady;
+        private boolean finished;
+        private boolean failed;
+        private long written;
+        volatile long length = -1;
+        volatile String contentType;
+
+        Download(String url, String key, Properties validators) {
+            this.url = url;
+            this.key = key;
+            this.validators = validators;
+            this.partFile = new File(dir, key + PART_SUFFIX);
+            this.file = new File(dir, key);
+        }
+
+        public void run() {
+            HttpURLConnection connection = null;
+            try {
+                connection = open(url);
+                if (validators != null) {
+                    String etag = validators.getProperty("etag");
+                    String lastModified = validators.getProperty("lastModified");
+                    if (etag != null) {
+                        connection.setRequestProperty("If-None-Match", etag);
+                    }
+                    if (lastModified != null) {
+                        connection.setRequestProperty("If-Modified-Since", lastModified);
+                    }
+                }
+                int code = connection.getResponseCode();
+                if (code == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    done(false);
+                    return;
+                }
+                if (code != HttpURLConnection.HTTP_OK) {
+                    throw new IOException("Unexpected response " + code);
+                }
+                String contentLength = connection.getHeaderField("Content-Length");
+                length = contentLength == null ? -1 : Long.parseLong(contentLength.trim());
+                contentType = connection.getContentType();
+                Properties meta = new Properties();
+                meta.setProperty("url", url);
+                setIfPresent(meta, "etag", connection.getHeaderField("ETag"));
+                setIfPresent(meta, "lastModified", connection.getHeaderField("Last-Modified"));
+                setIfPresent(meta, "contentType", contentType);
+
+                FileOutputStream out = new FileOutputStream(partFile);
+                synchronized (this) {
+                    headersReady = true;
+                    notifyAll();
+                }
+                try {
+                    InputStream in = connection.getInputStream();
+                    byte[] buffer = new byte[BUFFER_SIZE];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        out.write(buffer, 0, read);
+                        synchronized (this) {
+                            written += read;
+                            notifyAll();
+                        }
+                    }
+                } finally {
+                    out.close();
+                }
+                if (length >= 0 && written != length) {
+                    throw new IOException("Download of " + url + " ended after " + written + " of " + length + " bytes");
+                }
+                synchronized (this) {
+                    if (!partFile.renameTo(file)) {
+                        throw new IOException("Could not move " + partFile + " into the cache");
+                    }
+                }
+                writeMeta(key, meta);
+                done(false);
+                trim(key);
+            } catch (Exception e) {
+                Log.w(LOG_TAG, "Could not cache splash video " + url, e);
+                partFile.delete();
+                done(true);
+            } finally {
+                if (connection != null) {
+                    connection.disconnect();
+                }
+            }
+        }
+
+        private void setIfPresent(Properties meta, String name, String value) {
+            if (value != null) {
+                meta.setProperty(name, value);
+            }
+        }
+
+        private void done(boolean failed) {
+            synchronized (this) {
+                this.failed = failed;
+                finished = true;
+                notifyAll();
+            }
+            finishDownload(key);
+        }
+
+        /**
+         * Waits for the response headers. Returns false if the download failed, or turned out
+         * not to be needed, before they arrived.
+         */
+        synchronized boolean awaitHeaders() {
+            try {
+                while (!headersReady && !finished) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            return headersReady && !failed;
+        }
+
+        synchronized void awaitFinished() {
+            try {
+                while (!finished) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        synchronized long written() {
+            return written;
+        }
+
+        /**
+         * Waits until the byte at position has been written, and returns how many bytes have
+         * been. Returns early with a smaller count if the download ends first.
+         */
+        synchronized long awaitBytes(long position) {
+            try {
+                while (written <= position && !finished) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return failed ? -1 : written;
+        }
+
+        /**
+         * Opens whichever of the partial and the complete file currently holds the data;
+         * synchronized with the rename so one of them always exists.
+         */
+        synchronized RandomAccessFile openForReading() throws IOException {
+            return new RandomAccessFile(partFile.exists() ? partFile : file, "r");
+        }
+    }
+}
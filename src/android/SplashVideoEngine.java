@@ -0,0 +1,94 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+         http://www.apache.org/licenses/LICENSE-2.0
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+
+package org.apache.cordova.splashscreen;
+
+import android.content.Context;
+import android.view.SurfaceView;
+
+import java.io.IOException;
+
+/**
+ * Decodes and renders the welcome video. Implementations are selected with the
+ * "SplashScreenVideoEngine" preference.
+ *
+ * An engine may be opened and prepared on a background thread; every other method is called on
+ * the UI thread.
+ */
+interface SplashVideoEngine {
+
+    interface Listener {
+        void onPrepared(SplashVideoEngine engine);
+
+        /**
+         * The engine has a surface to render to.
+         */
+        void onDisplayAvailable(SplashVideoEngine engine);
+
+        /**
+         * The first video frame was rendered.
+         */
+        void onFirstFrame(SplashVideoEngine engine);
+
+        void onCompletion(SplashVideoEngine engine);
+
+        void onError(SplashVideoEngine engine, int what, int extra);
+    }
+
+    void setListener(Listener listener);
+
+    /**
+     * Opens the video. Urls under file:///android_asset are read from "www/" + movieUrl.
+     */
+    void setDataSource(Context context, String url, String movieUrl) throws IOException;
+
+    /**
+     * Prepares the video synchronously. Only call this off the UI thread.
+     */
+    void prepare() throws IOException;
+
+    /**
+     * Prepares the video and reports to {@link Listener#onPrepared} or {@link Listener#onError}.
+     */
+    void prepareAsync();
+
+    boolean isPrepared();
+
+    /**
+     * Binds the engine to the splash layout. The placeholder is the layout's video SurfaceView;
+     * engines that render elsewhere hide it and put their own view in its place.
+     */
+    void attach(SurfaceView placeholder);
+
+    /**
+     * Starts playback, deferred until the rendering surface is available.
+     */
+    void start();
+
+    void pause();
+
+    boolean isPlaying();
+
+    int getCurrentPosition();
+
+    void seekTo(int position);
+
+    /**
+     * Releases the decoder and removes the engine's view from the splash layout.
+     */
+    void release();
+}
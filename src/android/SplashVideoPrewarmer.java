@@ -0,0 +1,173 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+         http://www.apache.org/licenses/LICENSE-2.0
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+
+package org.apache.cordova.splashscreen;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Opens and prepares the welcome video on a background thread so that, by the time the splash
+ * surface exists, the video engine only has to be attached to it. Remote videos are looked up in
+ * the video cache on that thread as well.
+ */
+class SplashVideoPrewarmer {
+    private static final String LOG_TAG = "SplashVideoPrewarmer";
+
+    interface Callback {
+        /**
+         * Called on the UI thread with the prepared engine, or with null if preparation failed.
+         * The callee takes ownership of the engine.
+         */
+        void onEngineReady(SplashVideoEngine engine);
+    }
+
+    interface EngineFactory {
+        /**
+         * Creates the engine to prepare the video with. Called on the thread calling
+         * {@link #start}, and only if the video is not being prepared already.
+         */
+        SplashVideoEngine create();
+    }
+
+    private final Context context;
+    private final ExecutorService executor;
+    private final SplashVideoCache videoCache;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private String url;
+    private int generation;
+    private boolean done;
+    private SplashVideoEngine engine;
+    private Callback pendingCallback;
+
+    /**
+     * @param videoCache cache to play remote videos through, or null.
+     */
+    SplashVideoPrewarmer(Context context, ExecutorService executor, SplashVideoCache videoCache) {
+        this.context = context;
+        this.executor = executor;
+        this.videoCache = videoCache;
+    }
+
+    /**
+     * Starts preparing the video at url, configured as movieUrl, with an engine from the
+     * factory. Does nothing if that video is already being prepared.
+     */
+    synchronized void start(final String url, final String movieUrl, EngineFactory factory) {
+        if (url.equals(this.url)) {
+            return;
+        }
+        release();
+        final SplashVideoEngine newEngine = factory.create();
+        this.url = url;
+        this.done = false;
+        final int startedGeneration = generation;
+
+        executor.execute(new Runnable() {
+            public void run() {
+                SplashVideoEngine prepared = newEngine;
+                try {
+                    String playbackUrl = url;
+                    if (videoCache != null && SplashVideoCache.isRemote(url)) {
+                        playbackUrl = videoCache.getPlaybackUrl(url);
+                    }
+                    prepared.setDataSource(context, playbackUrl, movieUrl);
+                    prepared.prepare();
+                } catch (Exception e) {
+                    Log.w(LOG_TAG, "Could not pre-warm splash video " + url, e);
+                    prepared.release();
+                    prepared = null;
+                }
+                deliver(startedGeneration, prepared);
+            }
+        });
+    }
+
+    /**
+     * Hands the pre-warmed engine for the video at url to the callback, immediately if it is
+     * ready or once preparation finishes.
+     *
+     * @return false if this video is not being pre-warmed, in which case the callback is never
+     *         called.
+     */
+    synchronized boolean acquire(String url, final Callback callback) {
+        if (this.url == null || !this.url.equals(url)) {
+            return false;
+        }
+        if (done) {
+            SplashVideoEngine ready = engine;
+            engine = null;
+            this.url = null;
+            generation++;
+            callback.onEngineReady(ready);
+        } else {
+            pendingCallback = callback;
+        }
+        return true;
+    }
+
+    /**
+     * Drops the pre-warmed engine, or the one still being prepared, and any pending callback.
+     */
+    synchronized void release() {
+        generation++;
+        url = null;
+        pendingCallback = null;
+        if (engine != null) {
+            engine.release();
+            engine = null;
+        }
+    }
+
+    /**
+     * Like {@link #release}, but keeps an engine that a splash screen is already waiting for.
+     */
+    synchronized void releaseUnclaimed() {
+        if (pendingCallback == null) {
+            release();
+        }
+    }
+
+    private synchronized void deliver(int startedGeneration, final SplashVideoEngine prepared) {
+        if (startedGeneration != generation) {
+            // Released or restarted with another video while preparing.
+            if (prepared != null) {
+                prepared.release();
+            }
+            return;
+        }
+        if (pendingCallback == null) {
+            engine = prepared;
+            done = true;
+            return;
+        }
+        final Callback callback = pendingCallback;
+        pendingCallback = null;
+        url = null;
+        generation++;
+        mainHandler.post(new Runnable() {
+            public void run() {
+                callback.onEngineReady(prepared);
+            }
+        });
+    }
+}
@@ -0,0 +1,122 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+         http://www.apache.org/licenses/LICENSE-2.0
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+
+package org.apache.cordova.splashscreen;
+
+import android.graphics.Matrix;
+import android.graphics.SurfaceTexture;
+import android.media.MediaPlayer;
+import android.view.Surface;
+import android.view.SurfaceView;
+import android.view.TextureView;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * Plays the welcome video with {@link MediaPlayer} into a TextureView. The decoder writes frames
+ * at the video's native size and the view scales them with a transform that keeps the aspect
+ * ratio, so no intermediate buffer is rescaled. Unlike a SurfaceView, the video takes part in
+ * view alpha and animations.
+ */
+class TextureVideoEngine extends MediaPlayerVideoEngine implements TextureView.SurfaceTextureListener {
+    private TextureView textureView;
+    private Surface surface;
+
+    TextureVideoEngine() {
+        super(false);
+        player.setOnVideoSizeChangedListener(new MediaPlayer.OnVideoSizeChangedListener() {
+            @Override
+            public void onVideoSizeChanged(MediaPlayer mediaPlayer, int width, int height) {
+                updateTransform();
+            }
+        });
+    }
+
+    @Override
+    public void attach(SurfaceView placeholder) {
+        ViewGroup parent = (ViewGroup) placeholder.getParent();
+        textureView = new TextureView(placeholder.getContext());
+        textureView.setSurfaceTextureListener(this);
+        textureView.setLayoutParams(placeholder.getLayoutParams());
+        // A GONE SurfaceView never allocates its window surface.
+        placeholder.setVisibility(View.GONE);
+        parent.addView(textureView, parent.indexOfChild(placeholder));
+    }
+
+    @Override
+    public void onSurfaceTextureAvailable(SurfaceTexture surfaceTexture, int width, int height) {
+        surface = new Surface(surfaceTexture);
+        player.setSurface(surface);
+        updateTransform();
+        onDisplayAvailable();
+    }
+
+    @Override
+    public void onSurfaceTextureSizeChanged(SurfaceTexture surfaceTexture, int width, int height) {
+        updateTransform();
+    }
+
+    @Override
+    public boolean onSurfaceTextureDestroyed(SurfaceTexture surfaceTexture) {
+        onDisplayLost();
+        if (surface != null) {
+            surface.release();
+            surface = null;
+        }
+        return true;
+    }
+
+    @Override
+    public void onSurfaceTextureUpdated(SurfaceTexture surfaceTexture) {
+    }
+
+    /**
+     * Fits the video into the view without distorting it.
+     */
+    private void updateTransform() {
+        if (textureView == null) {
+            return;
+        }
+        int viewWidth = textureView.getWidth();
+        int viewHeight = textureView.getHeight();
+        int videoWidth = player.getVideoWidth();
+        int videoHeight = player.getVideoHeight();
+        if (viewWidth == 0 || viewHeight == 0 || videoWidth == 0 || videoHeight == 0) {
+            return;
+        }
+        float scale = Math.min((float) viewWidth / videoWidth, (float) viewHeight / videoHeight);
+        Matrix matrix = new Matrix();
+        matrix.setScale(videoWidth * scale / viewWidth, videoHeight * scale / viewHeight, viewWidth / 2f, viewHeight / 2f);
+        textureView.setTransform(matrix);
+    }
+
+    @Override
+    public void release() {
+        super.release();
+        if (textureView != null) {
+            ViewGroup parent = (ViewGroup) textureView.getParent();
+            if (parent != null) {
+                parent.removeView(textureView);
+            }
+            textureView = null;
+        }
+        if (surface != null) {
+            surface.release();
+            surface = null;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+         http://www.apache.org/licenses/LICENSE-2.0
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+
+package io.cordova.hellocordova;
+
+/**
+ * What aapt generates for the test app with the plugin's src/android/res merged in. Robolectric
+ * only finds resources that have an id here; keep it in sync when adding resources.
+ */
+public final class R {
+    public static final class id {
+        public static final int imageview = 0x7f050000;
+        public static final int ll_skip = 0x7f050001;
+        public static final int pb_spinner = 0x7f050002;
+        public static final int sv_video = 0x7f050003;
+        public static final int vs_video = 0x7f050004;
+    }
+
+    public static final class layout {
+        public static final int splash_video_overlay = 0x7f070000;
+        public static final int splash_welcome_video = 0x7f070001;
+    }
+}
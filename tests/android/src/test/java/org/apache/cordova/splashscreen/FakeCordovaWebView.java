@@ -0,0 +1,78 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+         http://www.apache.org/licenses/LICENSE-2.0
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+
+package org.apache.cordova.splashscreen;
+
+import android.app.Activity;
+import android.content.Context;
+import android.view.View;
+
+import org.apache.cordova.CordovaPlugin;
+import org.apache.cordova.CordovaPreferences;
+import org.apache.cordova.CordovaWebView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * WebView stand-in that delivers messages to a single plugin, like the PluginManager does, and
+ * records them.
+ */
+class FakeCordovaWebView implements CordovaWebView {
+    private final View view;
+    private final CordovaPreferences preferences;
+    private CordovaPlugin plugin;
+    private String url;
+    final List<String> messages = new ArrayList<String>();
+
+    FakeCordovaWebView(Activity activity, CordovaPreferences preferences) {
+        this.view = new View(activity);
+        this.preferences = preferences;
+        activity.setContentView(view);
+    }
+
+    void setPlugin(CordovaPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    void setUrl(String url) {
+        this.url = url;
+    }
+
+    public View getView() {
+        return view;
+    }
+
+    public Context getContext() {
+        return view.getContext();
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void postMessage(String id, Object data) {
+        messages.add(id + ":" + data);
+        if (plugin != null) {
+            plugin.onMessage(id, data);
+        }
+    }
+
+    public CordovaPreferences getPreferences() {
+        return preferences;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+         http://www.apache.org/licenses/LICENSE-2.0
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+package org.apache.cordova.splashscreen;
+
+import android.app.Activity;
+import android.net.Uri;
+import android.view.SurfaceView;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowMediaPlayer;
+import org.robolectric.shadows.util.DataSource;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(shadows = {ShadowCreatedSurfaceView.class, ShadowCreatedSurfaceView.ValidSurface.class})
+public class MediaPlayerVideoEngineTest {
+    private static final String VIDEO_URL = "file:///sdcard/welcome.mp4";
+
+    private Activity activity;
+    private MediaPlayerVideoEngine engine;
+
+    @Before
+    public void setUp() {
+        activity = Robolectric.buildActivity(Activity.class).setup().get();
+        ShadowMediaPlayer.addMediaInfo(DataSource.toDataSource(Uri.parse(VIDEO_URL).getPath()),
+                new ShadowMediaPlayer.MediaInfo(5000, 0));
+    }
+
+    @After
+    public void tearDown() {
+        if (engine != null) {
+            engine.release();
+        }
+    }
+
+    private void prepare(boolean legacyFixedSize) throws Exception {
+        engine = new MediaPlayerVideoEngine(legacyFixedSize);
+        engine.setDataSource(activity, VIDEO_URL, VIDEO_URL);
+        engine.prepare();
+    }
+
+    @Test
+    public void attachAfterSurfaceCreatedPlays() throws Exception {
+        SurfaceView surface = new SurfaceView(activity);
+        prepare(true);
+        engine.attach(surface);
+        engine.start();
+        assertTrue(engine.isPlaying());
+    }
+
+    @Test
+    public void attachAfterSurfaceCreatedPlaysNativeSize() throws Exception {
+        SurfaceView surface = new SurfaceView(activity);
+        prepare(false);
+        engine.attach(surface);
+        engine.start();
+        assertTrue(engine.isPlaying());
+    }
+
+    @Test
+    public void startBeforeAttachWaitsForSurface() throws Exception {
+        prepare(true);
+        engine.start();
+        assertFalse(engine.isPlaying());
+        engine.attach(new SurfaceView(activity));
+        assertTrue(engine.isPlaying());
+    }
+}
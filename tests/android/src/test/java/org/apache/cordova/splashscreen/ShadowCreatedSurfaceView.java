@@ -0,0 +1,57 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+         http://www.apache.org/licenses/LICENSE-2.0
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+package org.apache.cordova.splashscreen;
+
+import android.view.Surface;
+import android.view.SurfaceHolder;
+import android.view.SurfaceView;
+
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+import org.robolectric.shadows.ShadowSurface;
+import org.robolectric.shadows.ShadowSurfaceView;
+
+/**
+ * SurfaceView whose window surface already exists, as it does once the splash dialog has been
+ * drawn. Robolectric's own holder has no surface and never calls its callbacks. Use it together
+ * with {@link ValidSurface}.
+ */
+@Implements(SurfaceView.class)
+public class ShadowCreatedSurfaceView extends ShadowSurfaceView {
+    private final FakeSurfaceHolder holder = new FakeSurfaceHolder() {
+        private final Surface surface = new Surface();
+
+        @Override
+        public Surface getSurface() {
+            return surface;
+        }
+    };
+
+    @Override
+    @Implementation
+    public SurfaceHolder getHolder() {
+        return holder;
+    }
+
+    @Implements(Surface.class)
+    public static class ValidSurface extends ShadowSurface {
+        @Implementation
+        public boolean isValid() {
+            return true;
+        }
+    }
+}
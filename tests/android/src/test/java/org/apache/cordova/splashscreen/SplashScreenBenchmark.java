@@ -0,0 +1,140 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+         http://www.apache.org/licenses/LICENSE-2.0
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+
+package org.apache.cordova.splashscreen;
+
+import android.app.Activity;
+import android.content.res.Configuration;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.CordovaPreferences;
+import org.json.JSONArray;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Time and memory allocated per show/hide cycle and per orientation change, measured on the
+ * JVM. Robolectric is much slower than a device, so the numbers are only good for comparing
+ * two builds of the plugin; the bounds asserted here are generous, meant to catch
+ * order-of-magnitude regressions, like the budgets in tests/tests.js.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class SplashScreenBenchmark {
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 200;
+    private static final long CYCLE_BUDGET_NS = 250 * 1000 * 1000;
+    private static final long CYCLE_ALLOCATION_BUDGET = 8 * 1024 * 1024;
+    private static final long ROTATION_BUDGET_NS = 10 * 1000 * 1000;
+    private static final long ROTATION_ALLOCATION_BUDGET = 256 * 1024;
+
+    private interface Operation {
+        void run(int iteration) throws Exception;
+    }
+
+    private Activity activity;
+    private CordovaPreferences preferences;
+    private FakeCordovaWebView webView;
+    private SplashScreen plugin;
+
+    @Before
+    public void setUp() {
+        activity = Robolectric.buildActivity(Activity.class).setup().get();
+        preferences = new CordovaPreferences();
+        preferences.set("SplashDrawableId", android.R.drawable.ic_dialog_info);
+        preferences.set("SplashShowOnlyFirstTime", false);
+        preferences.set("FadeSplashScreen", false);
+        preferences.set("ShowSplashScreenSpinner", false);
+        webView = new FakeCordovaWebView(activity, preferences);
+        plugin = new SplashScreen();
+        webView.setPlugin(plugin);
+        plugin.privateInitialize("SplashScreen", new FakeCordovaInterface(activity, new TestExecutorService()), webView, preferences);
+        ShadowLooper.idleMainLooper();
+    }
+
+    private void execute(String action) throws Exception {
+        plugin.execute(action, new JSONArray(), new CallbackContext("SplashScreen0", webView));
+        ShadowLooper.idleMainLooper();
+    }
+
+    @Test
+    public void showHideCycle() throws Exception {
+        measure("show/hide cycle", CYCLE_BUDGET_NS, CYCLE_ALLOCATION_BUDGET, new Operation() {
+            public void run(int iteration) throws Exception {
+                execute("show");
+                execute("hide");
+            }
+        });
+    }
+
+    @Test
+    public void orientationChange() throws Exception {
+        final Configuration portrait = new Configuration(activity.getResources().getConfiguration());
+        portrait.orientation = Configuration.ORIENTATION_PORTRAIT;
+        final Configuration landscape = new Configuration(portrait);
+        landscape.orientation = Configuration.ORIENTATION_LANDSCAPE;
+        measure("orientation change", ROTATION_BUDGET_NS, ROTATION_ALLOCATION_BUDGET, new Operation() {
+            public void run(int iteration) {
+                plugin.onConfigurationChanged(iteration % 2 == 0 ? landscape : portrait);
+                ShadowLooper.idleMainLooper();
+            }
+        });
+    }
+
+    private static void measure(String name, long budgetNanos, long allocationBudget, Operation operation) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            operation.run(i);
+        }
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            operation.run(i);
+        }
+        long nanos = (System.nanoTime() - start) / ITERATIONS;
+        long allocated = (allocatedBytes() - allocatedBefore) / ITERATIONS;
+        System.out.println(String.format(Locale.US, "%s: %.3f ms, %s per operation", name, nanos / 1e6,
+                allocatedBefore < 0 ? "allocations not measured" : allocated / 1024 + " KB"));
+
+        assertTrue(name + " took " + nanos + " ns", nanos < budgetNanos);
+        if (allocatedBefore >= 0) {
+            assertTrue(name + " allocated " + allocated + " bytes", allocated < allocationBudget);
+        }
+    }
+
+    /**
+     * Bytes allocated by the current thread so far, or -1 if the JVM does not tell.
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+            if (hotspot.isThreadAllocatedMemorySupported() && hotspot.isThreadAllocatedMemoryEnabled()) {
+                return hotspot.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,297 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+         http://www.apache.org/licenses/LICENSE-2.0
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+
+package org.apache.cordova.splashscreen;
+
+import android.app.Activity;
+import android.app.Dialog;
+import android.content.res.Configuration;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.CordovaPreferences;
+import org.apache.cordova.PluginResult;
+import org.json.JSONArray;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowChoreographer;
+import org.robolectric.shadows.ShadowDialog;
+import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.shadows.ShadowMediaPlayer;
+import org.robolectric.shadows.util.DataSource;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Drives the plugin through its lifecycle the way cordova-android does, with a fake WebView and
+ * CordovaInterface.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class SplashScreenTest {
+    private Activity activity;
+    private TestExecutorService threadPool;
+    private CordovaPreferences preferences;
+    private FakeCordovaWebView webView;
+    private SplashScreen plugin;
+
+    @Before
+    public void setUp() {
+        activity = Robolectric.buildActivity(Activity.class).setup().get();
+        threadPool = new TestExecutorService();
+        preferences = new CordovaPreferences();
+        // Set by pluginInitialize when it finds the "screen" drawable; use one of the framework's instead.
+        preferences.set("SplashDrawableId", android.R.drawable.ic_dialog_info);
+        // firstShow is static, every test starts with a fresh app.
+        preferences.set("SplashShowOnlyFirstTime", false);
+        preferences.set("FadeSplashScreen", false);
+        preferences.set("ShowSplashScreenSpinner", false);
+        webView = new FakeCordovaWebView(activity, preferences);
+        plugin = new SplashScreen();
+        webView.setPlugin(plugin);
+    }
+
+    private void initialize() {
+        plugin.privateInitialize("SplashScreen", new FakeCordovaInterface(activity, threadPool), webView, preferences);
+        ShadowLooper.idleMainLooper();
+    }
+
+    private CallbackContext execute(String action) throws Exception {
+        CallbackContext callbackContext = new CallbackContext("SplashScreen0", webView);
+        assertTrue(plugin.execute(action, new JSONArray(), callbackContext));
+        ShadowLooper.idleMainLooper();
+        return callbackContext;
+    }
+
+    private static boolean isSplashScreenShowing() {
+        Dialog dialog = ShadowDialog.getLatestDialog();
+        return dialog != null && dialog.isShowing();
+    }
+
+    private ImageView getSplashImageView() {
+        int id = activity.getResources().getIdentifier("imageview", "id", activity.getPackageName());
+        ViewGroup container = (ViewGroup) ShadowDialog.getLatestDialog().findViewById(id);
+        return (ImageView) container.getChildAt(0);
+    }
+
+    @Test
+    public void pluginInitializeShowsSplashScreen() {
+        initialize();
+        assertTrue(isSplashScreenShowing());
+        assertEquals(View.INVISIBLE, webView.getView().getVisibility());
+        assertNotNull(getSplashImageView().getDrawable());
+    }
+
+    @Test
+    public void pluginInitializeShowsNothingWithoutDrawable() {
+        preferences.set("SplashDrawableId", 0);
+        preferences.set("SplashScreen", "nosuchdrawable");
+        initialize();
+        assertNull(ShadowDialog.getLatestDialog());
+    }
+
+    @Test
+    public void pluginInitializeShowsNothingWithoutDelay() {
+        preferences.set("SplashScreenDelay", 0);
+        initialize();
+        assertNull(ShadowDialog.getLatestDialog());
+    }
+
+    @Test
+    public void pluginInitializeDoesNotWaitForPersistedState() {
+        // The state is still being loaded when the UI thread gets to the splash screen.
+        threadPool.pause();
+        initialize();
+        assertNull(ShadowDialog.getLatestDialog());
+        threadPool.runPending();
+        ShadowLooper.idleMainLooper();
+        assertTrue(isSplashScreenShowing());
+    }
+
+    @Test
+    public void hideDismissesSplashScreen() throws Exception {
+        initialize();
+        CallbackContext callbackContext = execute("hide");
+        assertEquals(PluginResult.Status.OK.ordinal(), callbackContext.getResult().getStatus());
+        assertEquals("splashscreen:hide", webView.messages.get(webView.messages.size() - 1));
+        assertFalse(isSplashScreenShowing());
+    }
+
+    @Test
+    public void showShowsSplashScreenAgain() throws Exception {
+        initialize();
+        execute("hide");
+        execute("show");
+        assertEquals("splashscreen:show", webView.messages.get(webView.messages.size() - 1));
+        assertTrue(isSplashScreenShowing());
+    }
+
+    @Test
+    public void showWhileShowingKeepsSplashScreen() throws Exception {
+        initialize();
+        Dialog dialog = ShadowDialog.getLatestDialog();
+        execute("show");
+        assertSame(dialog, ShadowDialog.getLatestDialog());
+        assertTrue(dialog.isShowing());
+        execute("hide");
+        assertFalse(isSplashScreenShowing());
+    }
+
+    @Test
+    public void burstOfRequestsIsAppliedOnce() throws Exception {
+        initialize();
+        // The UI thread is busy while JS makes the calls.
+        ShadowLooper.pauseMainLooper();
+        for (int i = 0; i < 10; i++) {
+            plugin.execute("show", new JSONArray(), new CallbackContext("SplashScreen0", webView));
+            plugin.execute("hide", new JSONArray(), new CallbackContext("SplashScreen1", webView));
+        }
+        assertTrue(webView.messages.isEmpty());
+        ShadowLooper.unPauseMainLooper();
+        assertEquals(Arrays.asList("splashscreen:hide"), webView.messages);
+        assertFalse(isSplashScreenShowing());
+    }
+
+    @Test
+    public void hideFadesSplashScreenOut() throws Exception {
+        preferences.set("FadeSplashScreen", true);
+        preferences.set("FadeSplashScreenDuration", 300);
+        initialize();
+        // Space the animation frames out in time instead of running the fade all at once.
+        ShadowChoreographer.setPostCallbackDelay(16);
+        ShadowChoreographer.setPostFrameCallbackDelay(16);
+        try {
+            execute("hide");
+            assertTrue(isSplashScreenShowing());
+            ShadowLooper.idleMainLooper(1000);
+            assertFalse(isSplashScreenShowing());
+        } finally {
+            ShadowChoreographer.setPostCallbackDelay(0);
+            ShadowChoreographer.setPostFrameCallbackDelay(0);
+        }
+    }
+
+    @Test
+    public void unknownActionIsRejected() throws Exception {
+        initialize();
+        assertFalse(plugin.execute("nosuchaction", new JSONArray(), new CallbackContext("SplashScreen0", webView)));
+    }
+
+    @Test
+    public void spinnerStopShowsWebView() {
+        initialize();
+        plugin.onMessage("spinner", "stop");
+        assertEquals(View.VISIBLE, webView.getView().getVisibility());
+    }
+
+    @Test
+    public void onPauseDismissesSplashScreen() {
+        initialize();
+        plugin.onPause(false);
+        assertFalse(isSplashScreenShowing());
+    }
+
+    @Test
+    public void onDestroyDismissesSplashScreen() {
+        initialize();
+        Dialog dialog = ShadowDialog.getLatestDialog();
+        plugin.onDestroy();
+        assertFalse(isSplashScreenShowing());
+        // Late messages from the WebView must not bring it back.
+        plugin.onMessage("splashscreen", "hide");
+        plugin.onMessage("onPageFinished", webView.getUrl());
+        plugin.onMessage("splashscreen", "show");
+        ShadowLooper.idleMainLooper();
+        assertSame(dialog, ShadowDialog.getLatestDialog());
+        assertFalse(isSplashScreenShowing());
+    }
+
+    @Test
+    public void onDestroyBeforeLaunchSplashScreenShowsNothing() {
+        threadPool.pause();
+        initialize();
+        plugin.onDestroy();
+        threadPool.runPending();
+        ShadowLooper.idleMainLooper();
+        assertNull(ShadowDialog.getLatestDialog());
+    }
+
+    @Test
+    public void onDestroyDropsPostedLaunchSplashScreen() {
+        ShadowLooper.pauseMainLooper();
+        plugin.privateInitialize("SplashScreen", new FakeCordovaInterface(activity, threadPool), webView, preferences);
+        plugin.onDestroy();
+        ShadowLooper.unPauseMainLooper();
+        assertNull(ShadowDialog.getLatestDialog());
+    }
+
+    @Test
+    @Config(shadows = {ShadowCreatedSurfaceView.class, ShadowCreatedSurfaceView.ValidSurface.class})
+    public void videoPreparedAfterSurfaceExistsIsPlayed() {
+        webView.setUrl("file:///sdcard/www/index.html");
+        preferences.set("SplashScreenVideoPath", "welcome.mp4");
+        preferences.set("SplashScreenProfile", SplashDeviceProfile.MODE_VIDEO);
+        ShadowMediaPlayer.addMediaInfo(DataSource.toDataSource("/sdcard/www/welcome.mp4"),
+                new ShadowMediaPlayer.MediaInfo(5000, 0));
+        threadPool.pause();
+        initialize();
+        // Load the persisted state, which queues the pre-warm and shows the splash screen.
+        threadPool.runNext();
+        ShadowLooper.idleMainLooper();
+        assertTrue(isSplashScreenShowing());
+        assertNull(plugin.videoEngine);
+
+        // The pre-warmed engine is handed over once the dialog's surface exists.
+        threadPool.runPending();
+        ShadowLooper.idleMainLooper();
+        assertNotNull(plugin.videoEngine);
+        assertTrue(plugin.videoEngine.isPlaying());
+    }
+
+    @Test
+    public void orientationChangeKeepsImageUntilDecoded() {
+        initialize();
+        ImageView imageView = getSplashImageView();
+        Drawable portrait = imageView.getDrawable();
+        assertNotNull(portrait);
+
+        threadPool.pause();
+        Configuration landscape = new Configuration(activity.getResources().getConfiguration());
+        landscape.orientation = Configuration.ORIENTATION_LANDSCAPE;
+        plugin.onConfigurationChanged(landscape);
+        assertSame(portrait, imageView.getDrawable());
+
+        threadPool.runPending();
+        ShadowLooper.idleMainLooper();
+        assertNotNull(imageView.getDrawable());
+        assertNotSame(portrait, imageView.getDrawable());
+    }
+}
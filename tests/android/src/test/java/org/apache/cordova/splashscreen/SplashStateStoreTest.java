@@ -0,0 +1,68 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+         http://www.apache.org/licenses/LICENSE-2.0
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+package org.apache.cordova.splashscreen;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(RobolectricTestRunner.class)
+public class SplashStateStoreTest {
+    private static final String VIDEO = "file:///android_asset/www/welcome.mp4";
+    private static final String OTHER_VIDEO = "file:///android_asset/www/other.mp4";
+
+    private SplashStateStore store;
+
+    @Before
+    public void setUp() {
+        store = new SplashStateStore(RuntimeEnvironment.application, new TestExecutorService());
+    }
+
+    private SplashStateStore nextLaunch() {
+        return new SplashStateStore(RuntimeEnvironment.application, new TestExecutorService());
+    }
+
+    @Test
+    public void positionIsKeptForTheSameVideo() {
+        store.recordVideoPosition(VIDEO, 1500);
+        assertEquals(1500, nextLaunch().getLastPosition(VIDEO));
+    }
+
+    @Test
+    public void positionIsIgnoredForAnotherVideo() {
+        store.recordVideoPosition(VIDEO, 1500);
+        assertEquals(0, nextLaunch().getLastPosition(OTHER_VIDEO));
+    }
+
+    @Test
+    public void positionIsDroppedOncePlayed() {
+        store.recordVideoPosition(VIDEO, 1500);
+        store.recordVideoPlayed();
+        assertEquals(0, nextLaunch().getLastPosition(VIDEO));
+    }
+
+    @Test
+    public void positionIsDroppedForNewStagedVideo() {
+        store.recordVideoPosition(VIDEO, 1500);
+        store.recordStaged("welcome.mp4", true, null);
+        assertEquals(0, nextLaunch().getLastPosition(VIDEO));
+    }
+}
@@ -0,0 +1,334 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+         http://www.apache.org/licenses/LICENSE-2.0
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+
+package org.apache.cordova.splashscreen;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the video cache against a local origin server.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class SplashVideoCacheTest {
+    private static final int VIDEO_SIZE = 100 * 1024;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private HttpServer origin;
+    private ExecutorService executor;
+    private File dir;
+    private final byte[] video = bytes(VIDEO_SIZE, 1);
+    private final List<String> conditionalRequests = new ArrayList<String>();
+    private volatile String etag = "\"v1\"";
+    private volatile boolean truncate;
+
+    @Before
+    public void setUp() throws IOException {
+        executor = Executors.newCachedThreadPool();
+        dir = new File(folder.getRoot(), "splash-video");
+        origin = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        origin.createContext("/", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+                if (ifNoneMatch != null) {
+                    synchronized (conditionalRequests) {
+                        conditionalRequests.add(ifNoneMatch);
+                        conditionalRequests.notifyAll();
+                    }
+                    if (ifNoneMatch.equals(etag)) {
+                        exchange.sendResponseHeaders(304, -1);
+                        exchange.close();
+                        return;
+                    }
+                }
+                exchange.getResponseHeaders().set("Content-Type", "video/mp4");
+                exchange.getResponseHeaders().set("ETag", etag);
+                exchange.sendResponseHeaders(200, video.length);
+                OutputStream body = exchange.getResponseBody();
+                try {
+                    body.write(video, 0, truncate ? video.length / 2 : video.length);
+                } finally {
+                    // Closing a short body drops the connection.
+                    exchange.close();
+                }
+            }
+        });
+        origin.start();
+    }
+
+    @After
+    public void tearDown() {
+        origin.stop(0);
+        executor.shutdownNow();
+    }
+
+    private String videoUrl(String name) {
+        return "http://127.0.0.1:" + origin.getAddress().getPort() + "/" + name;
+    }
+
+    @Test
+    public void servesVideoWhileDownloading() throws IOException {
+        SplashVideoCache cache = new SplashVideoCache(dir, 1024 * 1024, executor);
+        String playbackUrl = cache.getPlaybackUrl(videoUrl("a.mp4"));
+        assertTrue(playbackUrl, playbackUrl.startsWith("http://127.0.0.1:"));
+
+        HttpURLConnection connection = (HttpURLConnection) new URL(playbackUrl).openConnection();
+        assertEquals(200, connection.getResponseCode());
+        assertEquals("video/mp4", connection.getContentType());
+        assertArrayEquals(video, read(connection.getInputStream()));
+        connection.disconnect();
+
+        assertTrue(cache.prefetch(videoUrl("a.mp4")));
+        assertArrayEquals(video, read(new FileInputStream(cachedFile("a.mp4"))));
+        assertEquals("file://" + cachedFile("a.mp4").getAbsolutePath(), cache.getPlaybackUrl(videoUrl("a.mp4")));
+        cache.close();
+    }
+
+    @Test
+    public void servesRanges() throws IOException {
+        SplashVideoCache cache = new SplashVideoCache(dir, 1024 * 1024, executor);
+        String playbackUrl = cache.getPlaybackUrl(videoUrl("a.mp4"));
+
+        HttpURLConnection connection = (HttpURLConnection) new URL(playbackUrl).openConnection();
+        connection.setRequestProperty("Range", "bytes=1000-");
+        assertEquals(206, connection.getResponseCode());
+        assertEquals("bytes 1000-" + (VIDEO_SIZE - 1) + "/" + VIDEO_SIZE, connection.getHeaderField("Content-Range"));
+        assertArrayEquals(Arrays.copyOfRange(video, 1000, VIDEO_SIZE), read(connection.getInputStream()));
+        connection.disconnect();
+
+        connection = (HttpURLConnection) new URL(playbackUrl).openConnection();
+        connection.setRequestProperty("Range", "bytes=" + VIDEO_SIZE + "-");
+        assertEquals(416, connection.getResponseCode());
+        connection.disconnect();
+        cache.close();
+    }
+
+    @Test
+    public void revalidatesCachedVideo() throws Exception {
+        SplashVideoCache cache = new SplashVideoCache(dir, 1024 * 1024, executor);
+        assertTrue(cache.prefetch(videoUrl("a.mp4")));
+        File file = cachedFile("a.mp4");
+        long size = file.length();
+
+        assertEquals("file://" + file.getAbsolutePath(), cache.getPlaybackUrl(videoUrl("a.mp4")));
+        assertEquals("\"v1\"", awaitConditionalRequest());
+        awaitDownloads(cache);
+        assertTrue(file.isFile());
+        assertEquals(size, file.length());
+        assertFalse(new File(dir, file.getName() + ".part").exists());
+    }
+
+    @Test
+    public void replacesChangedVideo() throws Exception {
+        SplashVideoCache cache = new SplashVideoCache(dir, 1024 * 1024, executor);
+        assertTrue(cache.prefetch(videoUrl("a.mp4")));
+        etag = "\"v2\"";
+        Arrays.fill(video, (byte) 7);
+
+        cache.getPlaybackUrl(videoUrl("a.mp4"));
+        assertEquals("\"v1\"", awaitConditionalRequest());
+        awaitDownloads(cache);
+        assertArrayEquals(video, read(new FileInputStream(cachedFile("a.mp4"))));
+    }
+
+    @Test
+    public void interruptedDownloadLeavesNoPartFile() {
+        truncate = true;
+        SplashVideoCache cache = new SplashVideoCache(dir, 1024 * 1024, executor);
+        assertFalse(cache.prefetch(videoUrl("a.mp4")));
+        assertFalse(cachedFile("a.mp4").exists());
+        assertFalse(new File(dir, cachedFile("a.mp4").getName() + ".part").exists());
+        assertFalse(new File(dir, cachedFile("a.mp4").getName() + ".meta").exists());
+    }
+
+    @Test
+    public void evictsLeastRecentlyPlayedVideo() {
+        // Room for two of the three videos.
+        SplashVideoCache cache = new SplashVideoCache(dir, 2 * VIDEO_SIZE + VIDEO_SIZE / 2, executor);
+        assertTrue(cache.prefetch(videoUrl("a.mp4")));
+        assertTrue(cache.prefetch(videoUrl("b.mp4")));
+        assertTrue(cachedFile("a.mp4").setLastModified(1000));
+        assertTrue(cachedFile("b.mp4").setLastModified(2000));
+
+        assertTrue(cache.prefetch(videoUrl("c.mp4")));
+        assertFalse(cachedFile("a.mp4").exists());
+        assertFalse(new File(dir, cachedFile("a.mp4").getName() + ".meta").exists());
+        assertTrue(cachedFile("b.mp4").isFile());
+        assertTrue(cachedFile("c.mp4").isFile());
+    }
+
+    @Test
+    public void servesNothingButHandedOutVideos() throws IOException {
+        SplashVideoCache cache = new SplashVideoCache(dir, 1024 * 1024, executor);
+        assertTrue(cache.prefetch(videoUrl("b.mp4")));
+        String playbackUrl = cache.getPlaybackUrl(videoUrl("a.mp4"));
+        String base = playbackUrl.substring(0, playbackUrl.lastIndexOf('/'));
+        File secret = folder.newFile("secret.xml");
+
+        assertTrue(secret.isFile());
+        assertEquals(404, statusOf(base, "/../secret.xml"));
+        assertEquals(404, statusOf(base, "/" + cachedFile("b.mp4").getName()));
+        assertEquals(404, statusOf(base, "/" + cachedFile("b.mp4").getName() + ".meta"));
+        assertEquals(200, statusOf(base, "/" + cachedFile("a.mp4").getName()));
+        cache.close();
+    }
+
+    @Test
+    public void closeStopsServing() throws IOException {
+        SplashVideoCache cache = new SplashVideoCache(dir, 1024 * 1024, executor);
+        String playbackUrl = cache.getPlaybackUrl(videoUrl("a.mp4"));
+        cache.close();
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(playbackUrl).openConnection();
+            connection.getResponseCode();
+            throw new AssertionError("Still serving " + playbackUrl);
+        } catch (IOException e) {
+            // Connection refused.
+        }
+    }
+
+    @Test
+    public void closeDoesNotWaitForTheDisk() throws Exception {
+        final SplashVideoCache cache = new SplashVideoCache(dir, 1024 * 1024, executor);
+        cache.getPlaybackUrl(videoUrl("a.mp4"));
+        final CountDownLatch holding = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        // Stands in for a cache operation busy on the disk, e.g. trimming after a download.
+        Thread busy = new Thread(new Runnable() {
+            public void run() {
+                synchronized (cache) {
+                    holding.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        });
+        busy.start();
+        try {
+            assertTrue(holding.await(10, TimeUnit.SECONDS));
+            Future<?> closed = executor.submit(new Runnable() {
+                public void run() {
+                    cache.close();
+                }
+            });
+            closed.get(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            busy.join();
+        }
+    }
+
+    private File cachedFile(String name) {
+        return new File(dir, SplashVideoCache.keyFor(videoUrl(name)));
+    }
+
+    private String awaitConditionalRequest() throws InterruptedException {
+        synchronized (conditionalRequests) {
+            long deadline = System.currentTimeMillis() + 10000;
+            while (conditionalRequests.isEmpty() && System.currentTimeMillis() < deadline) {
+                conditionalRequests.wait(100);
+            }
+            return conditionalRequests.isEmpty() ? null : conditionalRequests.get(0);
+        }
+    }
+
+    /**
+     * Waits for the background downloads and revalidations of the cache to finish.
+     */
+    private void awaitDownloads(SplashVideoCache cache) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (cache.hasDownloads() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(cache.hasDownloads());
+    }
+
+    /**
+     * Sends the path as is, without the normalization URL would apply.
+     */
+    private static int statusOf(String base, String path) throws IOException {
+        URL url = new URL(base);
+        Socket socket = new Socket(url.getHost(), url.getPort());
+        try {
+            socket.getOutputStream().write(("GET " + path + " HTTP/1.1\r\nHost: 127.0.0.1\r\n\r\n").getBytes("US-ASCII"));
+            String status = new String(read(socket.getInputStream()), "US-ASCII");
+            return Integer.parseInt(status.substring(9, 12));
+        } finally {
+            socket.close();
+        }
+    }
+
+    private static byte[] read(InputStream in) throws IOException {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+
+    private static byte[] bytes(int size, int seed) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) (i * 31 + seed);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+         http://www.apache.org/licenses/LICENSE-2.0
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+
+package org.apache.cordova.splashscreen;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread pool stand-in that runs tasks on the calling thread, so the plugin's background work
+ * happens in a predictable order. While paused, tasks are queued until {@link #runPending}.
+ */
+class TestExecutorService extends AbstractExecutorService {
+    private final List<Runnable> pending = new ArrayList<Runnable>();
+    private boolean paused;
+    private boolean shutdown;
+
+    void pause() {
+        paused = true;
+    }
+
+    /**
+     * Runs the queued tasks, and the ones they queue, then goes back to running tasks right away.
+     */
+    void runPending() {
+        paused = false;
+        while (!pending.isEmpty()) {
+            pending.remove(0).run();
+        }
+    }
+
+    /**
+     * Runs the oldest queued task and stays paused, so whatever it queues waits.
+     */
+    void runNext() {
+        pending.remove(0).run();
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (paused) {
+            pending.add(command);
+        } else {
+            command.run();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        List<Runnable> dropped = new ArrayList<Runnable>(pending);
+        pending.clear();
+        return dropped;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && pending.isEmpty();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+        return isTerminated();
+    }
+}
@@ -36,6 +36,74 @@ exports.defineAutoTests = function () {
             expect(navigator.splashscreen.hide).toBeDefined();
             expect(typeof navigator.splashscreen.hide).toBe('function');
         });
+
+        it("splashscreen.spec.4 getTimings method should exist", function () {
+            expect(navigator.splashscreen.getTimings).toBeDefined();
+            expect(typeof navigator.splashscreen.getTimings).toBe('function');
+        });
+
+        it("splashscreen.spec.8 prefetch method should exist", function () {
+            expect(navigator.splashscreen.prefetch).toBeDefined();
+            expect(typeof navigator.splashscreen.prefetch).toBe('function');
+        });
+
+        it("splashscreen.spec.9 ready method should exist", function () {
+            expect(navigator.splashscreen.ready).toBeDefined();
+            expect(typeof navigator.splashscreen.ready).toBe('function');
+        });
+
+        it("splashscreen.spec.10 getFrameStats method should exist", function () {
+            expect(navigator.splashscreen.getFrameStats).toBeDefined();
+            expect(typeof navigator.splashscreen.getFrameStats).toBe('function');
+        });
+
+        it("splashscreen.spec.11 getDeviceProfile method should exist", function () {
+            expect(navigator.splashscreen.getDeviceProfile).toBeDefined();
+            expect(typeof navigator.splashscreen.getDeviceProfile).toBe('function');
+        });
+    });
+
+    describe('Splashscreen startup regressions (android)', function () {
+        var isAndroid = cordova.platformId === 'android';
+        // Generous upper bounds, meant to catch order-of-magnitude regressions on any device.
+        var INIT_BUDGET_MS = 250;
+        var CYCLE_BUDGET_MS = 100;
+
+        function failed(done) {
+            return function (err) {
+                fail(err);
+                done();
+            };
+        }
+
+        it("splashscreen.spec.5 pluginInitialize should stay within its budget", function (done) {
+            if (!isAndroid) {
+                pending('Timings are only recorded on Android');
+            }
+            navigator.splashscreen.getTimings(function (timings) {
+                expect(typeof timings.pluginInitializeStart).toBe('number');
+                expect(typeof timings.pluginInitializeEnd).toBe('number');
+                expect(timings.pluginInitializeEnd - timings.pluginInitializeStart).toBeLessThan(INIT_BUDGET_MS);
+                done();
+            }, failed(done));
+        });
+
+        it("splashscreen.spec.7 showing the splash screen should stay within its budget", function (done) {
+            if (!isAndroid) {
+                pending('Timings are only recorded on Android');
+            }
+            navigator.splashscreen.show();
+            window.setTimeout(function () {
+                navigator.splashscreen.hide();
+                navigator.splashscreen.getTimings(function (timings) {
+                    if (timings.dialogShowEnd === undefined) {
+                        pending('The splash screen was not shown, check the SplashScreen preference');
+                    }
+                    expect(timings.dialogShowEnd - timings.showSplashScreen).toBeLessThan(CYCLE_BUDGET_MS);
+                    done();
+                }, failed(done));
+            }, 500);
+        });
     });
 };
 
@@ -47,12 +115,56 @@ exports.defineManualTests = function (contentEl, createActionButton) {
         }, 1000 * duration);
     }
 
+    function benchmark(cycles, resultEl) {
+        var inflate = [];
+        var show = [];
+
+        function cycle(remaining) {
+            if (remaining === 0) {
+                resultEl.innerHTML = 'Cycles: ' + cycles +
+                    '<br>inflateLayout: ' + summarize(inflate) +
+                    '<br>showSplashScreen to dialogShowEnd: ' + summarize(show);
+                return;
+            }
+            navigator.splashscreen.show();
+            window.setTimeout(function () {
+                navigator.splashscreen.getTimings(function (timings) {
+                    inflate.push(timings.inflateLayoutEnd - timings.inflateLayoutStart);
+                    show.push(timings.dialogShowEnd - timings.showSplashScreen);
+                    navigator.splashscreen.hide();
+                    window.setTimeout(function () {
+                        cycle(remaining - 1);
+                    }, 1000);
+                }, function (err) {
+                    resultEl.innerHTML = 'getTimings failed: ' + err;
+                });
+            }, 500);
+        }
+
+        resultEl.innerHTML = 'Running...';
+        cycle(cycles);
+    }
+
+    function summarize(samples) {
+        var sorted = samples.filter(function (s) { return !isNaN(s); }).sort(function (a, b) { return a - b; });
+        if (sorted.length === 0) {
+            return 'n/a';
+        }
+        var total = sorted.reduce(function (sum, s) { return sum + s; }, 0);
+        return 'avg ' + (total / sorted.length).toFixed(1) + ' ms, median ' +
+            sorted[Math.floor(sorted.length / 2)].toFixed(1) + ' ms, max ' + sorted[sorted.length - 1].toFixed(1) + ' ms';
+    }
+
     contentEl.innerHTML = '<h1>Splashscreen Tests</h1>' +
         '<h3>Note for WP: AutoHideSplashScreen must be set to false in config.xml</h3>' +
         '<div id="show1"></div>' +
         'Expected result: Will show the Cordova splashscreen for 1 second' +
         '</p> <div id="show5"></div>' +
-        'Expected result: Will show the Cordova splashscreen for 5 seconds';
+        'Expected result: Will show the Cordova splashscreen for 5 seconds' +
+        '</p> <div id="benchmark"></div>' +
+        'Expected result: (Android) Will show and hide the splashscreen 10 times, then report how long inflating ' +
+        'the layout and showing the dialog took' +
+        '<div id="benchmark_result"></div>';
 
     createActionButton('Show for 1 second', function () {
         showFor(1);
@@ -61,4 +173,8 @@ exports.defineManualTests = function (contentEl, createActionButton) {
     createActionButton('Show for 5 seconds', function () {
         showFor(5);
     }, 'show5');
+
+    createActionButton('Benchmark show/hide', function () {
+        benchmark(10, document.getElementById('benchmark_result'));
+    }, 'benchmark');
 };
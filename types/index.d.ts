@@ -13,5 +13,47 @@ interface Navigator {
         hide(): void;
         /** Displays the splash screen. */
         show(): void;
+        /**
+         * Android only. Tells the plugin the app has drawn its first screen, for
+         * SplashScreenAdaptiveDelay with SplashScreenReadySignal set to "ready".
+         */
+        ready(): void;
+        /**
+         * Android only. Reports when each phase of the splash screen lifecycle happened,
+         * in milliseconds since the plugin was initialized.
+         */
+        getTimings(successCallback: (timings: { [phase: string]: number }) => void, errorCallback?: (message: string) => void): void;
+        /**
+         * Android only. Reports the device tier the splash screen detected and the splash mode
+         * it picked for it.
+         */
+        getDeviceProfile(successCallback: (profile: {
+            tier: "low" | "mid" | "high";
+            mode: "video" | "image" | "downsampled";
+            lowRamDevice: boolean;
+            memoryClass: number;
+            cpuCount: number;
+            displayWidth: number;
+            displayHeight: number;
+        }) => void, errorCallback?: (message: string) => void): void;
+        /**
+         * Android only. Reports the frames rendered while the splash screen was up and while it
+         * handed over to the WebView. Requires the SplashScreenFrameMonitor preference.
+         */
+        getFrameStats(successCallback: (stats: {
+            running: boolean;
+            refreshPeriodMs: number;
+            durationMs: number;
+            frames: number;
+            slowFrames: number;
+            droppedFrames: number;
+            maxFrameMs: number;
+            histogram: { [bucket: string]: number };
+        }) => void, errorCallback?: (message: string) => void): void;
+        /**
+         * Android only. Downloads and prepares the welcome video and splash image the next
+         * launch should show, once the current page has loaded.
+         */
+        prefetch(videoPath?: string, imagePath?: string, successCallback?: () => void, errorCallback?: (message: string) => void): void;
     }
 }
\ No newline at end of file
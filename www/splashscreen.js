@@ -27,6 +27,21 @@ var splashscreen = {
     },
     hide:function() {
         exec(null, null, "SplashScreen", "hide", []);
+    },
+    ready:function() {
+        exec(null, null, "SplashScreen", "ready", []);
+    },
+    getTimings:function(successCallback, errorCallback) {
+        exec(successCallback, errorCallback, "SplashScreen", "getTimings", []);
+    },
+    getDeviceProfile:function(successCallback, errorCallback) {
+        exec(successCallback, errorCallback, "SplashScreen", "getDeviceProfile", []);
+    },
+    getFrameStats:function(successCallback, errorCallback) {
+        exec(successCallback, errorCallback, "SplashScreen", "getFrameStats", []);
+    },
+    prefetch:function(videoPath, imagePath, successCallback, errorCallback) {
+        exec(successCallback, errorCallback, "SplashScreen", "prefetch", [videoPath || null, imagePath || null]);
     }
 };
 